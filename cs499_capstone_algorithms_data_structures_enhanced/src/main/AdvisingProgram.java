@@ -29,17 +29,42 @@
 
 package main;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.InputMismatchException;
+import java.util.List;
 import java.util.Scanner;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class AdvisingProgram {
 	
+	// Parse CSV files on disk in parallel with ParallelCsvLoader (-Dadvising.import.parallel=true)
+	private static final boolean PARALLEL_LOAD = Boolean.getBoolean("advising.import.parallel");
+	
+	// Reload the catalog file whenever it changes (-Dadvising.catalog.watch=true)
+	private static final boolean WATCH_CATALOG = Boolean.getBoolean("advising.catalog.watch");
+	
+	// Keep a binary snapshot next to the catalog file and serve lookups from it (-Dadvising.catalog.binary=true)
+	// Ignored in watch mode, which keeps the courses in the list so that changes can be applied
+	private static final boolean BINARY_CATALOG = Boolean.getBoolean("advising.catalog.binary");
+	
+	// Order of the course list
+	private static final Comparator<Course> BY_COURSE_ID = (c1, c2) -> c1.courseId.compareTo(c2.courseId);
+	
 	public static void main(String[] args) {
         // Assuming the input CSV file is passed as an argument
         String filePath = "advising_program_input.csv";
@@ -52,7 +77,28 @@ public class AdvisingProgram {
         }
 
         // Initialize the ArrayList to store courses, which will remain sorted for better search performance
-        ArrayList<Course> courseList = new ArrayList<>();
+        // It is held in an AtomicReference so that a reload can swap in an updated copy while the menu reads the current one
+        AtomicReference<ArrayList<Course>> catalog = new AtomicReference<>(new ArrayList<>());
+
+        // In watch mode, load the catalog now and apply every later change to the file while the menu runs
+        String catalogPath = filePath;
+        CsvChangeDetector<Course> detector = new CsvChangeDetector<>();
+        CatalogWatcher watcher = null;
+        if (WATCH_CATALOG) {
+            reloadCourses(catalogPath, catalog, detector);
+            try {
+                if (isFile(catalogPath)) {
+                    watcher = new CatalogWatcher(Paths.get(catalogPath), () -> reloadCourses(catalogPath, catalog, detector));
+                    watcher.start();
+                    System.out.println("Watching " + catalogPath + " for catalog changes.");
+                }
+            } catch (IOException e) {
+                System.err.println("Error watching the file: " + e.getMessage());
+            }
+        }
+
+        // The mapped snapshot of the catalog, when the courses were loaded from one instead of into the list
+        BinaryCatalog snapshot = null;
 
         // Menu-driven program
         Scanner sc = new Scanner(System.in);
@@ -73,14 +119,29 @@ public class AdvisingProgram {
                 switch (choice) {
                     case 1:
                         // Load courses from a file and insert them into the ArrayList, keeping it sorted
-                        loadCourses(filePath, courseList);
+                        if (WATCH_CATALOG) {
+                            reloadCourses(filePath, catalog, detector);  // Apply only what changed
+                        } else {
+                            // Map an up-to-date snapshot if there is one; otherwise parse the CSV, which writes a new snapshot
+                            snapshot = BINARY_CATALOG ? openSnapshot(filePath) : null;
+                            if (snapshot != null) {
+                                System.out.println();
+                                System.out.println("Courses loaded from snapshot: " + snapshot.size() + " courses.");
+                            } else {
+                                loadCourses(filePath, catalog.get());
+                            }
+                        }
                         break;
                     case 2:
                         // Display all the courses (in sorted order due to ArrayList sorting)
                         System.out.println();
                         System.out.println("Here is a sample schedule:");
-                        for (Course course : courseList) {
-                            System.out.println("Course ID: " + course.courseId + ", Title: " + course.title);
+                        if (snapshot != null) {
+                            snapshot.forEach(c -> System.out.println("Course ID: " + c.courseId + ", Title: " + c.title));
+                        } else {
+                            for (Course course : catalog.get()) {
+                                System.out.println("Course ID: " + course.courseId + ", Title: " + course.title);
+                            }
                         }
                         break;
                     case 3:
@@ -89,11 +150,20 @@ public class AdvisingProgram {
                         System.out.println("Please Enter The Course ID: ");
                         courseKey = sc.next();
                         boolean foundCourse = false;
-                        for (Course course : courseList) {
-                            if (course.courseId.equals(courseKey)) {
-                                displayCourse(course); // Display the found course
+                        if (snapshot != null) {
+                            // Binary search over the mapped snapshot (O(log n))
+                            Course found = snapshot.find(courseKey);
+                            if (found != null) {
+                                displayCourse(found);
                                 foundCourse = true;
-                                break;
+                            }
+                        } else {
+                            for (Course course : catalog.get()) {
+                                if (course.courseId.equals(courseKey)) {
+                                    displayCourse(course); // Display the found course
+                                    foundCourse = true;
+                                    break;
+                                }
                             }
                         }
                         
@@ -118,43 +188,93 @@ public class AdvisingProgram {
         }
         
         sc.close();
+        if (watcher != null) {
+            try {
+                watcher.close();
+            } catch (IOException e) {
+                System.err.println("Error closing the file watcher: " + e.getMessage());
+            }
+        }
     }
 	
 	
 	// Method to load courses from a file and insert them into the ArrayList in sorted order
     // Time Complexity: O(n log n) because of binary search for finding insertion point (O(log n))
     // and shifting elements (O(n)) when inserting
+    // With -Dadvising.import.parallel=true, a path naming a file on disk is memory-mapped and parsed
+    // on several cores by ParallelCsvLoader, and the list is sorted once at the end (O(n log n))
+    // With -Dadvising.catalog.binary=true, a binary snapshot of the courses read from the file is written next to it;
+    // courses already in the list from an earlier load are left out, so the snapshot matches the file
+    // A course whose ID is already in the list is ignored, so where an ID repeats the first course wins
     private static void loadCourses(String filePath, ArrayList<Course> courseList) {
-        // Use class loader to access the file from the resources folder
-        InputStream inputStream = AdvisingProgram.class.getClassLoader().getResourceAsStream(filePath);
+        // Size and modification time of the file before it is read, for the snapshot to be checked against
+        BasicFileAttributes source = BINARY_CATALOG ? readAttributes(filePath) : null;
+        // Course IDs repeat as prerequisites; the symbol table keeps one copy of each for this load
+        SymbolTable symbols = new SymbolTable();
 
-        // Check if the resource was found
-        if (inputStream == null) {
-            System.err.println("Error: File not found in resources folder!");
+        if (PARALLEL_LOAD && isFile(filePath)) {
+            try {
+                ParallelCsvLoader.Result<Course> result = ParallelCsvLoader.parse(Paths.get(filePath), csv -> parseCourse(csv, symbols));
+                // Errors come back in file order, as a sequential read would report them
+                for (CsvReader.CsvException e : result.getErrors()) {
+                    System.err.println("Error parsing CSV: " + e.getMessage() + ". Skipping entry.");
+                }
+                // Append the new courses, then sort once instead of shifting the list for every course
+                Set<String> present = new HashSet<>();
+                for (Course course : courseList) {
+                    present.add(course.courseId);
+                }
+                for (Course course : result.getRecords()) {
+                    if (present.add(course.courseId)) {
+                        courseList.add(course);
+                    }
+                }
+                courseList.sort(BY_COURSE_ID);
+                System.out.println();
+                System.out.println("Courses loaded successfully.");
+                writeSnapshot(filePath, source, result.getRecords());
+            } catch (IOException e) {
+                System.err.println("Error reading the file: " + e.getMessage());
+            }
             return;
         }
 
-        try (BufferedReader br = new BufferedReader(new InputStreamReader(inputStream))) {
-            String line;
-            
-            // Read the file line by line
-            while ((line = br.readLine()) != null) {
-                String[] fields = line.split(",");
-                Course course = new Course(fields[0], fields[1]);
-                
-                // Add prerequisites to the course
-                for (int i = 2; i < fields.length; i++) {
-                    course.prerequisite.add(fields[i]);
-                }
-                // Insert course in sorted order using binary search
-                int index = Collections.binarySearch(courseList, course, (c1, c2) -> c1.courseId.compareTo(c2.courseId));
-                if (index < 0) {
-                    index = -(index + 1); // Calculate insertion point if course not found
+        // Open the file on disk, or else from the resources folder
+        try (Reader reader = openCatalog(filePath)) {
+            // Check if the file was found
+            if (reader == null) {
+                System.err.println("Error: File not found on disk or in resources folder!");
+                return;
+            }
+
+            // The courses read from this file, for the snapshot
+            List<Course> loaded = new ArrayList<>();
+            // Read the file record by record
+            CsvReader csv = new CsvReader(reader);
+            while (true) {
+                try {
+                    if (!csv.next()) {
+                        break;
+                    }
+                    Course course = parseCourse(csv, symbols);
+                    if (course == null) {
+                        continue;
+                    }
+                    // Insert course in sorted order using binary search, unless its ID is already in the list
+                    int index = Collections.binarySearch(courseList, course, BY_COURSE_ID);
+                    if (index < 0) {
+                        index = -(index + 1); // Calculate insertion point if course not found
+                        courseList.add(index, course); // Insert at the correct sorted position
+                    }
+                    loaded.add(course);
+                } catch (CsvReader.CsvException e) {
+                    // Malformed record; the reader has moved on to the next line
+                    System.err.println("Error parsing CSV: " + e.getMessage() + ". Skipping entry.");
                 }
-                courseList.add(index, course); // Insert at the correct sorted position
             }
             System.out.println();
             System.out.println("Courses loaded successfully.");
+            writeSnapshot(filePath, source, loaded);
             
         } catch (IOException e) {
             System.err.println("Error reading the file: " + e.getMessage());
@@ -162,6 +282,156 @@ public class AdvisingProgram {
     }
 	
 	
+	// Re-read the catalog and apply only the courses that were added, changed or removed since the last reload
+    // The changes are merged into a new sorted list that then replaces the old one, so readers keep
+    // using the previous list until the update is complete
+    // The menu and the file watcher can reload at the same time, so each scan and its update run
+    // under the detector's lock; otherwise an older scan could replace the list built from a newer one
+    // Time Complexity: O(n + k log k) for n courses and k changes; only the k changed records are parsed
+    private static void reloadCourses(String filePath, AtomicReference<ArrayList<Course>> catalog,
+            CsvChangeDetector<Course> detector) {
+        synchronized (detector) {
+            try (Reader reader = openCatalog(filePath)) {
+                if (reader == null) {
+                    System.err.println("Error: File not found on disk or in resources folder!");
+                    return;
+                }
+
+                SymbolTable symbols = new SymbolTable();
+                CsvChangeDetector.Changes<Course> changes = detector.scan(reader, csv -> parseCourse(csv, symbols));
+                for (CsvReader.CsvException e : changes.getErrors()) {
+                    System.err.println("Error parsing CSV: " + e.getMessage() + ". Skipping entry.");
+                }
+                if (!changes.isEmpty()) {
+                    catalog.set(applyChanges(catalog.get(), changes.getUpserts(), changes.getRemovals()));
+                }
+                System.out.println();
+                System.out.println("Courses reloaded: " + changes + ".");
+            } catch (IOException e) {
+                System.err.println("Error reading the file: " + e.getMessage());
+            }
+        }
+    }
+	
+	
+	// Merge changes into a copy of a sorted course list; the original list is not modified
+    // Time Complexity: O(n + k log k) for n courses and k changes
+    private static ArrayList<Course> applyChanges(List<Course> courseList, List<Course> upserts, List<String> removals) {
+        // Courses being replaced or removed are dropped from the old list
+        Set<String> dropped = new HashSet<>(removals);
+        for (Course course : upserts) {
+            dropped.add(course.courseId);
+        }
+        List<Course> added = new ArrayList<>(upserts);
+        added.sort(BY_COURSE_ID);
+
+        ArrayList<Course> merged = new ArrayList<>(courseList.size() + added.size());
+        int next = 0;
+        for (Course course : courseList) {
+            if (dropped.contains(course.courseId)) {
+                continue;
+            }
+            while (next < added.size() && BY_COURSE_ID.compare(added.get(next), course) < 0) {
+                merged.add(added.get(next++));
+            }
+            merged.add(course);
+        }
+        while (next < added.size()) {
+            merged.add(added.get(next++));
+        }
+        return merged;
+    }
+	
+	
+	// Map the binary snapshot of a catalog file if it is up to date
+    // Returns null if the path does not name a file on disk or there is no usable snapshot, so the CSV is loaded instead
+    // Time Complexity: O(b) for a snapshot of b bytes, to verify its checksum; no course is parsed
+    private static BinaryCatalog openSnapshot(String filePath) {
+        if (!isFile(filePath)) {
+            return null;
+        }
+        Path csvFile = Paths.get(filePath);
+        try {
+            return BinaryCatalog.open(BinaryCatalog.pathFor(csvFile), csvFile);
+        } catch (IOException e) {
+            System.err.println("Error reading the snapshot: " + e.getMessage());
+            return null;
+        }
+    }
+	
+	
+	// Write a binary snapshot of the loaded courses next to the catalog file, for the next start to map
+    // Does nothing if source is null, which means the catalog is not a file on disk
+    private static void writeSnapshot(String filePath, BasicFileAttributes source, Collection<Course> courses) {
+        if (source == null) {
+            return;
+        }
+        try {
+            BinaryCatalog.write(BinaryCatalog.pathFor(Paths.get(filePath)), source, courses);
+        } catch (IOException e) {
+            System.err.println("Error writing the snapshot: " + e.getMessage());
+        }
+    }
+	
+	
+	// Read the size and modification time of a catalog file on disk
+    // Returns null if the path does not name a file on disk or it cannot be read
+    private static BasicFileAttributes readAttributes(String filePath) {
+        if (!isFile(filePath)) {
+            return null;
+        }
+        try {
+            return Files.readAttributes(Paths.get(filePath), BasicFileAttributes.class);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+	
+	
+	// Open a catalog as UTF-8 text: the file on disk if the path names one, otherwise the resource in the resources folder
+    // Returns null if neither exists
+    private static Reader openCatalog(String filePath) throws IOException {
+        if (isFile(filePath)) {
+            return Files.newBufferedReader(Paths.get(filePath), StandardCharsets.UTF_8);
+        }
+        // Use class loader to access the file from the resources folder
+        InputStream inputStream = AdvisingProgram.class.getClassLoader().getResourceAsStream(filePath);
+        return inputStream == null ? null : new InputStreamReader(inputStream, StandardCharsets.UTF_8);
+    }
+	
+	
+	// Build a course from the current CSV record: courseId, title, then any number of prerequisite IDs (RFC 4180 CSV)
+    // Course IDs, including those of prerequisites, come from the symbol table of the load
+    // Returns null for a blank line
+    private static Course parseCourse(CsvReader csv, SymbolTable symbols) throws CsvReader.CsvException {
+        if (csv.isBlankLine()) {
+            return null;
+        }
+        if (csv.getFieldCount() < 2) {
+            throw new CsvReader.CsvException("missing course title", csv.getLineNumber());
+        }
+        Course course = new Course(symbols.intern(csv.field(0)), csv.getString(1));
+
+        // Add prerequisites to the course
+        for (int i = 2; i < csv.getFieldCount(); i++) {
+            if (csv.field(i).length() > 0) {  // Ignore empty trailing fields
+                course.prerequisite.add(symbols.intern(csv.field(i)));
+            }
+        }
+        return course;
+    }
+	
+	
+	// Check whether a path names a regular file on disk
+    private static boolean isFile(String path) {
+        try {
+            return Files.isRegularFile(Paths.get(path));
+        } catch (InvalidPathException e) {
+            return false;
+        }
+    }
+	
+	
 	// Display the course information
     // Time Complexity: O(1) for displaying a single course
     public static void displayCourse(Course course) {
@@ -0,0 +1,292 @@
+package main;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Precompiled binary snapshot of a catalog CSV, opened by memory-mapping it.
+ * After a CSV has been parsed once, its courses are written to a snapshot file next to it. Later
+ * starts map the snapshot instead of parsing the CSV, and lookups read the mapped file directly:
+ * a Course object is built only for the course that is asked for.
+ *
+ * File layout (big-endian):
+ *   Header, 64 bytes:
+ *     int   magic "ADVC"
+ *     int   format version
+ *     long  size of the CSV the snapshot was built from
+ *     long  last-modified time of that CSV, in milliseconds
+ *     int   number of courses (n)
+ *     int   number of prerequisite entries (m)
+ *     int   length of the string table (s)
+ *     int   reserved
+ *     long  CRC-32C of everything after the header
+ *     16 bytes reserved
+ *   Course records, n x 16 bytes, sorted by course ID:
+ *     int offset and int length of the course ID in the string table, then the same for the title
+ *   Prerequisite row offsets, (n + 1) x 4 bytes (compressed sparse rows):
+ *     the prerequisites of course i are entries offsets[i] to offsets[i + 1] - 1
+ *   Prerequisite entries, m x 8 bytes:
+ *     int offset and int length of the prerequisite's course ID in the string table
+ *   String table, s bytes:
+ *     UTF-8 text; each distinct string is stored once
+ *
+ * A snapshot is stale when the CSV's size or modification time no longer match the header, and
+ * is rejected when the magic, version, section sizes or checksum are wrong. Either way open()
+ * returns null and the caller falls back to the CSV.
+ */
+public class BinaryCatalog {
+
+    private static final int MAGIC = 0x41445643;  // "ADVC"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int COURSE_RECORD_SIZE = 16;
+    private static final int PREREQUISITE_ENTRY_SIZE = 8;
+
+    private final MappedByteBuffer buffer;
+    private final int courseCount;
+    private final int coursesStart;
+    private final int rowOffsetsStart;
+    private final int prerequisitesStart;
+    private final int stringsStart;
+
+    private BinaryCatalog(MappedByteBuffer buffer, int courseCount, int prerequisiteCount) {
+        this.buffer = buffer;
+        this.courseCount = courseCount;
+        this.coursesStart = HEADER_SIZE;
+        this.rowOffsetsStart = coursesStart + courseCount * COURSE_RECORD_SIZE;
+        this.prerequisitesStart = rowOffsetsStart + (courseCount + 1) * 4;
+        this.stringsStart = prerequisitesStart + prerequisiteCount * PREREQUISITE_ENTRY_SIZE;
+    }
+
+    /**
+     * @return Where the snapshot of a catalog CSV is kept: next to it, with ".snapshot" appended.
+     */
+    public static Path pathFor(Path csvFile) {
+        return csvFile.resolveSibling(csvFile.getFileName() + ".snapshot");
+    }
+
+    /**
+     * Maps a snapshot if it exists, is intact and was built from the current version of the CSV.
+     *
+     * Time complexity: O(b) for a snapshot of b bytes, to verify the checksum.
+     *
+     * @return The snapshot, or null if it is missing, stale or damaged.
+     * @throws IOException if the files cannot be read.
+     */
+    public static BinaryCatalog open(Path snapshotFile, Path csvFile) throws IOException {
+        BasicFileAttributes source = Files.readAttributes(csvFile, BasicFileAttributes.class);
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+                return null;
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            return null;
+        }
+        if (buffer.getLong(8) != source.size() || buffer.getLong(16) != source.lastModifiedTime().toMillis()) {
+            return null;  // Built from an older version of the CSV
+        }
+        long courseCount = buffer.getInt(24);
+        long prerequisiteCount = buffer.getInt(28);
+        long stringsLength = buffer.getInt(32);
+        long expectedSize = HEADER_SIZE + courseCount * COURSE_RECORD_SIZE + (courseCount + 1) * 4
+                + prerequisiteCount * PREREQUISITE_ENTRY_SIZE + stringsLength;
+        if (courseCount < 0 || prerequisiteCount < 0 || stringsLength < 0 || expectedSize != buffer.capacity()) {
+            return null;
+        }
+        if (buffer.getLong(40) != checksum(buffer)) {
+            return null;
+        }
+        return new BinaryCatalog(buffer, (int) courseCount, (int) prerequisiteCount);
+    }
+
+    /**
+     * Writes a snapshot of the given courses. The file is written under a temporary name and then
+     * moved into place, so a reader never sees a half-written snapshot.
+     *
+     * Time complexity: O(n log n + m) for n courses with m prerequisites in total.
+     *
+     * @param source  Attributes of the CSV, read before it was parsed.
+     * @throws IOException if the snapshot cannot be written, or would exceed 2 GB.
+     */
+    public static void write(Path snapshotFile, BasicFileAttributes source, Collection<Course> courses) throws IOException {
+        // Sort by course ID; where an ID repeats, the first course is kept, as the loaders do
+        List<Course> ordered = new ArrayList<>(courses);
+        ordered.sort((c1, c2) -> c1.courseId.compareTo(c2.courseId));
+        List<Course> sorted = new ArrayList<>(ordered.size());
+        for (Course course : ordered) {
+            if (sorted.isEmpty() || !sorted.get(sorted.size() - 1).courseId.equals(course.courseId)) {
+                sorted.add(course);
+            }
+        }
+
+        // Each distinct string is stored once; its symbol handle gives its place in the string table
+        SymbolTable symbols = new SymbolTable();
+        int prerequisiteCount = 0;
+        for (Course course : sorted) {
+            symbols.handle(course.courseId);
+            symbols.handle(course.title);
+            for (String prerequisite : course.prerequisite) {
+                symbols.handle(prerequisite);
+            }
+            prerequisiteCount += course.prerequisite.size();
+        }
+        byte[][] strings = new byte[symbols.size()][];
+        int[] stringOffsets = new int[symbols.size()];
+        long stringsLength = 0;
+        for (int handle = 0; handle < strings.length; handle++) {
+            strings[handle] = symbols.symbol(handle).getBytes(StandardCharsets.UTF_8);
+            stringOffsets[handle] = (int) stringsLength;  // Checked against the 2 GB limit below
+            stringsLength += strings[handle].length;
+        }
+
+        long size = HEADER_SIZE + (long) sorted.size() * COURSE_RECORD_SIZE + (sorted.size() + 1L) * 4
+                + (long) prerequisiteCount * PREREQUISITE_ENTRY_SIZE + stringsLength;
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Catalog is too large for a snapshot: " + size + " bytes");
+        }
+        ByteBuffer out = ByteBuffer.allocate((int) size);
+
+        // Course records
+        out.position(HEADER_SIZE);
+        for (Course course : sorted) {
+            putString(out, course.courseId, symbols, strings, stringOffsets);
+            putString(out, course.title, symbols, strings, stringOffsets);
+        }
+        // Prerequisite row offsets, then the entries
+        int row = 0;
+        for (Course course : sorted) {
+            out.putInt(row);
+            row += course.prerequisite.size();
+        }
+        out.putInt(row);
+        for (Course course : sorted) {
+            for (String prerequisite : course.prerequisite) {
+                putString(out, prerequisite, symbols, strings, stringOffsets);
+            }
+        }
+        // String table
+        for (byte[] bytes : strings) {
+            out.put(bytes);
+        }
+
+        out.putInt(0, MAGIC);
+        out.putInt(4, VERSION);
+        out.putLong(8, source.size());
+        out.putLong(16, source.lastModifiedTime().toMillis());
+        out.putInt(24, sorted.size());
+        out.putInt(28, prerequisiteCount);
+        out.putInt(32, (int) stringsLength);
+        out.putLong(40, checksum(out));
+
+        Path tmp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        out.clear();
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        }
+        Files.move(tmp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void putString(ByteBuffer out, String value, SymbolTable symbols, byte[][] strings, int[] offsets) {
+        int handle = symbols.handle(value);
+        out.putInt(offsets[handle]);
+        out.putInt(strings[handle].length);
+    }
+
+    /**
+     * CRC-32C of everything after the header.
+     */
+    private static long checksum(ByteBuffer buffer) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate().position(HEADER_SIZE).limit(buffer.capacity()));
+        return crc.getValue();
+    }
+
+    /**
+     * @return The number of courses.
+     */
+    public int size() {
+        return courseCount;
+    }
+
+    /**
+     * Finds a course by binary search over the mapped records.
+     *
+     * Time complexity: O(log n); only the course that is found is materialized.
+     *
+     * @return The course, or null if it is not in the catalog.
+     */
+    public Course find(String courseId) {
+        int low = 0;
+        int high = courseCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int comparison = courseId(mid).compareTo(courseId);
+            if (comparison < 0) {
+                low = mid + 1;
+            } else if (comparison > 0) {
+                high = mid - 1;
+            } else {
+                return course(mid);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Passes every course to the action, in course ID order, materializing one at a time.
+     */
+    public void forEach(Consumer<Course> action) {
+        for (int i = 0; i < courseCount; i++) {
+            action.accept(course(i));
+        }
+    }
+
+    private String courseId(int index) {
+        return string(coursesStart + index * COURSE_RECORD_SIZE);
+    }
+
+    private Course course(int index) {
+        int record = coursesStart + index * COURSE_RECORD_SIZE;
+        Course course = new Course(string(record), string(record + 8));
+        int from = buffer.getInt(rowOffsetsStart + index * 4);
+        int to = buffer.getInt(rowOffsetsStart + (index + 1) * 4);
+        for (int entry = from; entry < to; entry++) {
+            course.prerequisite.add(string(prerequisitesStart + entry * PREREQUISITE_ENTRY_SIZE));
+        }
+        return course;
+    }
+
+    /**
+     * Decodes the string whose offset and length are stored at a position in the file.
+     */
+    private String string(int position) {
+        int offset = buffer.getInt(position);
+        int length = buffer.getInt(position + 4);
+        byte[] bytes = new byte[length];
+        buffer.get(stringsStart + offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
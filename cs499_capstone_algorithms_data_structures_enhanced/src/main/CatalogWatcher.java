@@ -0,0 +1,101 @@
+package main;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches a catalog file and runs a reload action after it changes.
+ * The file's directory is registered with a WatchService, so the watcher costs nothing while the
+ * file is unchanged. Editors and copy tools often write a file in several steps, so the action
+ * runs only once the file has been quiet for QUIET_PERIOD_MS, once per burst of changes.
+ * The action runs on the watcher's daemon thread.
+ */
+public class CatalogWatcher implements Closeable {
+
+    // How long the file must stay unchanged before the reload runs
+    private static final long QUIET_PERIOD_MS = 250;
+
+    private final Path file;
+    private final Runnable onChange;
+    private final WatchService watchService;
+    private final Thread thread;
+
+    /**
+     * @param file      The catalog file; it may be replaced as well as rewritten.
+     * @param onChange  Called after each burst of changes to the file.
+     * @throws IOException if the directory cannot be watched.
+     */
+    public CatalogWatcher(Path file, Runnable onChange) throws IOException {
+        this.file = file.toAbsolutePath();
+        this.onChange = onChange;
+        this.watchService = this.file.getFileSystem().newWatchService();
+        this.file.getParent().register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        this.thread = new Thread(this::watch, "catalog-watcher");
+        this.thread.setDaemon(true);
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                if (!affectsFile(watchService.take())) {
+                    continue;
+                }
+                // Wait until the writes have settled
+                WatchKey key;
+                while ((key = watchService.poll(QUIET_PERIOD_MS, TimeUnit.MILLISECONDS)) != null) {
+                    affectsFile(key);
+                }
+                try {
+                    onChange.run();
+                } catch (RuntimeException e) {
+                    System.err.println("Error reloading " + file + ": " + e.getMessage());
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Closed
+        }
+    }
+
+    /**
+     * Consumes the events of a key and re-arms it.
+     *
+     * @return true if any event concerned the watched file, or events were lost.
+     */
+    private boolean affectsFile(WatchKey key) {
+        boolean affected = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || file.getFileName().equals(event.context())) {
+                affected = true;
+            }
+        }
+        key.reset();
+        return affected;
+    }
+
+    /**
+     * Stops watching. A reload that is already running finishes first.
+     */
+    @Override
+    public void close() throws IOException {
+        watchService.close();  // Wakes the thread, which then exits
+        if (thread != Thread.currentThread()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -56,10 +56,14 @@
 
 package main;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -68,6 +72,42 @@ import java.util.List;
 import java.util.Scanner;
 
 public class AdvisingProgram {
+
+    // Course lookup cache settings (-Dadvising.cache.size, -Dadvising.cache.ttlMs; a TTL of 0 never expires)
+    private static final int CACHE_SIZE = Integer.getInteger("advising.cache.size", 500);
+    private static final long CACHE_TTL_MS = Long.getLong("advising.cache.ttlMs", 0L);
+
+    // Serve reads from an immutable in-memory snapshot of the catalog (-Dadvising.catalog.snapshot=true)
+    private static final boolean CATALOG_SNAPSHOT = Boolean.getBoolean("advising.catalog.snapshot");
+
+    // Parse CSV files on disk in parallel with ParallelCsvLoader (-Dadvising.import.parallel=true)
+    private static final boolean PARALLEL_IMPORT = Boolean.getBoolean("advising.import.parallel");
+
+    // Catalog file to sync into the database at startup and whenever it changes (-Dadvising.catalog.watch=<path>)
+    private static final String CATALOG_WATCH_FILE = System.getProperty("advising.catalog.watch");
+
+    // Maximum number of results shown by the course search
+    private static final int SEARCH_LIMIT = 20;
+
+    private AdvisingProgram() {
+        // Static methods only
+    }
+
+    /**
+     * Creates the snapshot DAO when enabled, falling back to the caching DAO if the catalog cannot be loaded.
+     */
+    private static CourseDAO createCourseDAO() {
+        if (CATALOG_SNAPSHOT) {
+            try {
+                SnapshotCourseDAO snapshotDAO = new SnapshotCourseDAO();
+                System.out.println("Loaded " + snapshotDAO.getSnapshot().size() + " courses into the catalog snapshot.");
+                return snapshotDAO;
+            } catch (SQLException e) {
+                System.out.println("Error loading the catalog snapshot: " + e.getMessage());
+            }
+        }
+        return new CachingCourseDAO(CACHE_SIZE, CACHE_TTL_MS);
+    }
 	
 	/**
      * Main method that serves as the entry point of the program.
@@ -76,11 +116,22 @@ public class AdvisingProgram {
      */
     public static void main(String[] args) {
         Scanner scanner = new Scanner(System.in);
-        CourseDAO courseDAO = new CourseDAO();
 
         // Create the necessary tables in the SQLite database
         DatabaseManager.createCourseTable();
 
+        CourseDAO courseDAO = createCourseDAO();
+
+        // Drop change log entries superseded by later changes to the same course
+        try {
+            new CourseChangeLog(courseDAO).compact();
+        } catch (SQLException e) {
+            System.out.println("Error compacting the course change log: " + e.getMessage());
+        }
+
+        // Keep the database in sync with a catalog file that is edited while the program runs
+        CatalogWatcher catalogWatcher = CATALOG_WATCH_FILE == null ? null : watchCatalog(CATALOG_WATCH_FILE, courseDAO);
+
         boolean running = true;
 
         // Main loop for interacting with the program
@@ -93,6 +144,11 @@ public class AdvisingProgram {
             System.out.println("5. Update Course");
             System.out.println("6. Remove Course");
             System.out.println("7. Exit");
+            System.out.println("8. Re-import Courses from CSV (incremental)");
+            System.out.println("9. Search Courses");
+            System.out.println("10. Back Up Database");
+            System.out.println("11. Restore Database from Backup");
+            System.out.println("12. Show Performance Metrics");
 
             System.out.print("Choose an option: ");
             
@@ -130,6 +186,39 @@ public class AdvisingProgram {
                         running = false;
                         System.out.println("Goodbye.");
                         break;
+                    case 8:
+                        System.out.print("Enter CSV file path: ");
+                        String refreshFilePath = scanner.nextLine();
+                        try {
+                            reimportCoursesFromCSV(refreshFilePath, courseDAO); // Apply only the changes
+                        } catch (IOException | SQLException e) {
+                            System.out.println("Error importing courses: " + e.getMessage());
+                        }
+                        break;
+                    case 9:
+                        searchCourses(scanner, courseDAO); // Full-text search by name or department
+                        break;
+                    case 10:
+                        System.out.print("Enter backup file path: ");
+                        String backupPath = scanner.nextLine();
+                        try {
+                            DatabaseBackup.backup(Paths.get(backupPath)); // Online copy while the program runs
+                        } catch (IOException | SQLException | InvalidPathException e) {
+                            System.out.println("Error backing up database: " + e.getMessage());
+                        }
+                        break;
+                    case 11:
+                        System.out.print("Enter backup file path: ");
+                        String restorePath = scanner.nextLine();
+                        try {
+                            DatabaseBackup.scheduleRestore(Paths.get(restorePath)); // Swapped in on next start
+                        } catch (IOException | SQLException | InvalidPathException e) {
+                            System.out.println("Error restoring database: " + e.getMessage());
+                        }
+                        break;
+                    case 12:
+                        showMetrics(courseDAO); // Latency percentiles and counters per DAO operation
+                        break;
                     default:
                         System.out.println("Invalid option. Please choose again.");
                 }
@@ -140,10 +229,105 @@ public class AdvisingProgram {
             }
         }
         scanner.close();
+        if (catalogWatcher != null) {
+            try {
+                catalogWatcher.close();
+            } catch (IOException e) {
+                System.out.println("Error closing catalog watcher: " + e.getMessage());
+            }
+        }
+        DatabaseManager.shutdown(); // Release pooled database connections
+    }
+
+    
+    
+    /**
+     * Keeps the database in sync with a catalog file on disk: imports it incrementally now, then
+     * again each time the file changes, writing only the courses that were added, changed or
+     * removed. Menu reads are never blocked; they see each change once it is committed.
+     * 
+     * @return The running watcher, or null if the file cannot be watched.
+     */
+    private static CatalogWatcher watchCatalog(String csvFilePath, CourseDAO courseDAO) {
+        if (!isFile(csvFilePath)) {
+            System.out.println("Error watching catalog: " + csvFilePath + " is not a file on disk.");
+            return null;
+        }
+        CsvChangeDetector<Course> detector = new CsvChangeDetector<>();
+        syncCatalog(csvFilePath, courseDAO, detector, true);
+        try {
+            CatalogWatcher watcher = new CatalogWatcher(Paths.get(csvFilePath),
+                    () -> syncCatalog(csvFilePath, courseDAO, detector, false));
+            watcher.start();
+            System.out.println("Watching " + csvFilePath + " for catalog changes.");
+            return watcher;
+        } catch (IOException e) {
+            System.out.println("Error watching catalog: " + e.getMessage());
+            return null;
+        }
+    }
+
+    
+    
+    
+    
+    /**
+     * Re-reads the watched catalog and writes what changed. Only new and changed records are parsed.
+     * The first sync is a full incremental import, so courses missing from the file are removed
+     * even if they were added before the program started, unless some record cannot be parsed.
+     * 
+     * Time complexity: O(c) to scan c characters, plus database writes for the changed courses only.
+     */
+    private static void syncCatalog(String csvFilePath, CourseDAO courseDAO, CsvChangeDetector<Course> detector,
+                                    boolean initial) {
+        try (Reader reader = openCatalog(csvFilePath)) {
+            if (reader == null) {
+                System.out.println("Error reloading catalog: " + csvFilePath + " not found.");
+                return;
+            }
+            SymbolTable symbols = new SymbolTable();
+            CsvChangeDetector.Changes<Course> changes = detector.scan(reader, csv -> parseCourse(csv, symbols));
+            for (CsvReader.CsvException e : changes.getErrors()) {
+                System.out.println("Error parsing CSV: " + e.getMessage() + ". Skipping entry.");
+            }
+            if (!initial && changes.isEmpty()) {
+                return;
+            }
+
+            // The detector already withholds removals from a scan with errors; the first sync must do
+            // the same, or a course whose record is malformed at startup would be deleted
+            ImportSummary summary = initial
+                    ? courseDAO.importCoursesIncremental(changes.getUpserts(), !changes.getErrors().isEmpty())
+                    : courseDAO.applyCatalogChanges(changes.getUpserts(), changes.getRemovals());
+            for (BulkInsertResult.RowError error : summary.getErrors()) {
+                System.out.println("Error importing course: " + error.getCourseId() + " into database: " + error.getMessage());
+            }
+            System.out.println("Catalog refreshed from " + csvFilePath + ": " + summary + ".");
+        } catch (IOException | SQLException e) {
+            System.out.println("Error reloading catalog: " + e.getMessage());
+        }
     }
 
     
     
+    
+    
+    /**
+     * Prints the DAO operation metrics together with the connection pool and cache statistics.
+     * The same operation metrics are available over JMX under main:type=CourseDAO.
+     */
+    private static void showMetrics(CourseDAO courseDAO) {
+        System.out.print(DaoMetrics.dump());
+        ConnectionPool pool = DatabaseManager.getPool();
+        System.out.println("Connection pool: " + pool.getActiveCount() + " active, " + pool.getIdleCount() + " idle");
+        System.out.println(pool.getStatementCacheStats());
+        if (courseDAO instanceof CachingCourseDAO) {
+            System.out.println(((CachingCourseDAO) courseDAO).getStats());
+        }
+    }
+
+
+
     /**
      * Adds a new course to the database based on user input.
      * Time complexity: O(1) for inserting a single course in SQLite.
@@ -204,6 +388,31 @@ public class AdvisingProgram {
 	
 	
 	
+    /**
+     * Searches course names and departments for the words entered by the user
+     * and prints the best matches first.
+     * Time complexity: O(log n + k) using the full-text index, for k matches.
+     */
+    private static void searchCourses(Scanner scanner, CourseDAO courseDAO) {
+        System.out.print("Enter search words: ");
+        String query = scanner.nextLine();
+
+        try {
+            List<Course> matches = courseDAO.searchCourses(query, SEARCH_LIMIT);
+            if (matches.isEmpty()) {
+                System.out.println("No matching courses found.");
+            }
+            for (Course course : matches) {
+                System.out.println(course);  // Print each match, best first
+            }
+        } catch (SQLException e) {
+            System.out.println("Error searching courses: " + e.getMessage());
+        }
+    }
+	
+	
+	
+	
     /**
      * Updates an existing course in the database based on user input.
      * Time complexity: O(1) for updating the course, and O(m) for updating prerequisites, where m is the number of prerequisites.
@@ -276,20 +485,18 @@ public class AdvisingProgram {
 	
     /**
      * Displays all courses stored in the SQLite database.
-     * This method retrieves all courses using the CourseDAO class 
-     * and prints them to the console.
+     * Courses are streamed from the database with CourseDAO.forEachCourse and 
+     * printed as they arrive, so the catalog is never held in memory as a whole.
      * 
      * Time complexity: O(n), where n is the number of courses in the database.
      * The database query retrieves all rows from the Course table, and 
-     * each course is printed in the console using a for-each loop.
+     * each course is printed in the console as soon as it has been read.
      */
     private static void listCourses(CourseDAO courseDAO) {
         try {
             System.out.println("Course List:");
-            // Fetch all courses and iterate over the list
-            for (Course c : courseDAO.getAllCourses()) {
-                System.out.println(c);  // Display each course
-            }
+            // Stream the courses and display each one as it is read
+            courseDAO.forEachCourse(System.out::println);
         } catch (SQLException e) {
             // Catch and print any SQL errors that occur while retrieving courses
             System.out.println("Error retrieving courses: " + e.getMessage());
@@ -302,69 +509,270 @@ public class AdvisingProgram {
     
     /**
      * Imports courses from a CSV file and adds them to the SQLite database.
-     * Each line in the CSV represents a course and its related information.
-     * The CSV is expected to have 5 values (course ID, course name, credits, department, prerequisites).
      * 
      * Time complexity: O(n), where n is the number of lines in the CSV file. 
-     * For each line, the CSV data is parsed and processed before being inserted into the database.
+     * Parsing and writing run as an ImportPipeline: a parser thread feeds batches through a
+     * bounded queue to CourseDAO.insertCourses, which commits one transaction per batch, so
+     * the file is parsed while earlier batches are being written. With
+     * -Dadvising.import.parallel=true and a file on disk, the whole file is parsed on all
+     * cores first and then written.
      */
     private static void importCoursesFromCSV(String csvFilePath, CourseDAO courseDAO) throws IOException, SQLException {
-        // Load the CSV file from the resources folder
-        InputStream inputStream = AdvisingProgram.class.getClassLoader().getResourceAsStream(csvFilePath);
+        if (PARALLEL_IMPORT && isFile(csvFilePath)) {
+            ParallelCsvLoader.Result<Course> parsed = parseCoursesFromCSV(csvFilePath);
+            if (parsed == null) {
+                return;
+            }
+            printInsertResult(courseDAO.insertCourses(parsed.getRecords()));
+            return;
+        }
 
-        // Check if the resource was found in the classpath
-        if (inputStream == null) {
-            System.err.println("Error: File not found in resources folder!");
+        // Open the file on disk, or else from the resources folder
+        Reader reader = openCatalog(csvFilePath);
+        if (reader == null) {
+            System.err.println("Error: File not found on disk or in resources folder!");
             return;
         }
 
-        // Use BufferedReader to read the CSV file line by line
-        try (BufferedReader br = new BufferedReader(new InputStreamReader(inputStream))) {
-            String line;
+        SymbolTable symbols = new SymbolTable();
+        ImportPipeline.Result result = new ImportPipeline(courseDAO).run(reader, csv -> parseCourse(csv, symbols));
+        for (CsvReader.CsvException e : result.getParseErrors()) {
+            System.out.println("Error parsing CSV: " + e.getMessage() + ". Skipping entry.");
+        }
+        printInsertResult(result.getInsertResult());
+        System.out.println(result);
 
-            // Process each line of the CSV file
-            while ((line = br.readLine()) != null) {
-                String[] values = line.split(",");  // Split the line into fields by commas
+        // Stop on the first fatal error; batches committed before it stay in the database
+        if (result.getFailure() instanceof IOException) {
+            throw (IOException) result.getFailure();
+        } else if (result.getFailure() instanceof SQLException) {
+            throw (SQLException) result.getFailure();
+        }
+    }
 
-                if (values.length == 5) {  // Expect 5 values: courseId, courseName, credits, department, prerequisites
-                    String courseId = values[0];
-                    String courseName = values[1];
-                    try {
-                        // Parse the credits field as an integer
-                        int credits = Integer.parseInt(values[2]);
-                        String department = values[3];
+    
+    
+    
+    
+    /**
+     * Reports the courses the database rejected and how many were committed.
+     */
+    private static void printInsertResult(BulkInsertResult result) {
+        for (BulkInsertResult.RowError error : result.getErrors()) {
+            // Report every course that could not be inserted
+            System.out.println("Error inserting course: " + error.getCourseId() + " into database: " + error.getMessage());
+        }
 
-                        // Process prerequisites
-                        List<String> prerequisites = new ArrayList<>();
-                        if (!values[4].equalsIgnoreCase("None")) {
-                            String[] prereqsArray = values[4].split(";");
-                            prerequisites = Arrays.asList(prereqsArray);  // Split prerequisites by semicolons
-                        }
+        // Inform the user how many courses were loaded
+        System.out.println();
+        System.out.println(result.getInserted() + " courses loaded successfully.");
+    }
 
-                        // Create a new Course object with the parsed data
-                        Course course = new Course(courseId, courseName, credits, department, prerequisites);
-
-                        // Insert the course into the database
-                        courseDAO.insertCourse(course);
-                    } catch (NumberFormatException e) {
-                        // Catch and handle the error if the credits field cannot be parsed as an integer
-                        System.out.println("Error parsing credits for course: " + courseId + ". Skipping entry.");
-                    } catch (SQLException e) {
-                        // Handle any SQL errors during course insertion
-                        System.out.println("Error inserting course: " + courseId + " into database: " + e.getMessage());
-                    }
-                } else {
-                    // Print an error message for improperly formatted lines
-                    System.out.println("Invalid line format: " + line);
+    
+    
+    
+    
+    /**
+     * Re-imports a full catalog CSV incrementally: only courses that are new, changed,
+     * or no longer in the file are written, all in a single transaction. Running it
+     * again on the same file changes nothing.
+     * If any record cannot be parsed, no course is removed: the bad record may be a course that
+     * is still offered, and it keeps its stored version until the file is fixed.
+     * 
+     * Time complexity: O(n) for n lines, plus database writes only for the changed courses.
+     */
+    private static void reimportCoursesFromCSV(String csvFilePath, CourseDAO courseDAO) throws IOException, SQLException {
+        ParallelCsvLoader.Result<Course> parsed = parseCoursesFromCSV(csvFilePath);
+        if (parsed == null) {
+            return;
+        }
+
+        boolean hasErrors = !parsed.getErrors().isEmpty();
+        ImportSummary summary = courseDAO.importCoursesIncremental(parsed.getRecords(), hasErrors);
+        if (hasErrors) {
+            System.out.println("Some records could not be parsed, so no courses were removed. Fix the file and import again.");
+        }
+        for (BulkInsertResult.RowError error : summary.getErrors()) {
+            System.out.println("Error importing course: " + error.getCourseId() + " into database: " + error.getMessage());
+        }
+        System.out.println();
+        System.out.println("Catalog refreshed: " + summary + ".");
+    }
+
+    
+    
+    
+    
+    /**
+     * Reads a CSV file into Course objects.
+     * Each record in the CSV represents a course and its related information, with the fields
+     * course ID, course name, credits, department and prerequisites (separated by semicolons,
+     * or "None"). The file follows RFC 4180, so a quoted course name may contain commas, and an
+     * empty or missing prerequisites field means the course has none.
+     * Records that cannot be parsed are reported with their line number and skipped.
+     * 
+     * The path may name a file on disk or in the resources folder. With
+     * -Dadvising.import.parallel=true, a file on disk is memory-mapped and parsed in chunks on
+     * several cores by ParallelCsvLoader; otherwise the file is streamed.
+     * Department names and course IDs are canonicalized through a SymbolTable for the load, so
+     * the courses share one copy of each instead of holding their own.
+     * 
+     * Time complexity: O(n), where n is the number of characters in the CSV file.
+     * 
+     * @return The parsed courses and the records that could not be parsed, or null if the file
+     *         could not be found or read.
+     */
+    private static ParallelCsvLoader.Result<Course> parseCoursesFromCSV(String csvFilePath) {
+        SymbolTable symbols = new SymbolTable();
+        if (PARALLEL_IMPORT && isFile(csvFilePath)) {
+            try {
+                ParallelCsvLoader.Result<Course> result =
+                        ParallelCsvLoader.parse(Paths.get(csvFilePath), csv -> parseCourse(csv, symbols));
+                // Errors come back in file order, as a sequential read would report them
+                for (CsvReader.CsvException e : result.getErrors()) {
+                    System.out.println("Error parsing CSV: " + e.getMessage() + ". Skipping entry.");
                 }
+                return result;
+            } catch (IOException e) {
+                System.err.println("Error reading the file: " + e.getMessage());
+                return null;
             }
-            // Inform the user that the courses have been loaded successfully
-            System.out.println();
-            System.out.println("Courses loaded successfully.");
+        }
+
+        List<Course> courses = new ArrayList<>();
+        List<CsvReader.CsvException> errors = new ArrayList<>();
 
+        // Open the file on disk, or else from the resources folder
+        try (Reader reader = openCatalog(csvFilePath)) {
+            if (reader == null) {
+                System.err.println("Error: File not found on disk or in resources folder!");
+                return null;
+            }
+
+            // Stream the file one record at a time; fields are read in place without splitting each line
+            CsvReader csv = new CsvReader(reader);
+            while (true) {
+                try {
+                    if (!csv.next()) {
+                        break;
+                    }
+                    Course course = parseCourse(csv, symbols);
+                    if (course != null) {
+                        courses.add(course);
+                    }
+                } catch (CsvReader.CsvException e) {
+                    // Malformed record or unparseable credits; the reader has moved on to the next line
+                    System.out.println("Error parsing CSV: " + e.getMessage() + ". Skipping entry.");
+                    errors.add(e);
+                }
+            }
         } catch (IOException e) {
             // Handle any file reading errors
             System.err.println("Error reading the file: " + e.getMessage());
+            return null;
+        }
+        return new ParallelCsvLoader.Result<>(courses, errors);
+    }
+
+    
+    
+    
+    
+    /**
+     * Builds a Course from the current CSV record. The course ID, department and prerequisite IDs
+     * are taken from the symbol table, so only strings it has not seen before are allocated.
+     * 
+     * @param symbols The symbol table of the load.
+     * @return The course, or null for a blank line.
+     * @throws CsvReader.CsvException if the record has the wrong number of fields or invalid credits.
+     */
+    private static Course parseCourse(CsvReader csv, SymbolTable symbols) throws CsvReader.CsvException {
+        if (csv.isBlankLine()) {
+            return null;
+        }
+
+        // Expect courseId, courseName, credits, department and, optionally, prerequisites
+        int fieldCount = csv.getFieldCount();
+        if (fieldCount != 4 && fieldCount != 5) {
+            throw new CsvReader.CsvException("expected 5 fields but found " + fieldCount, csv.getLineNumber());
+        }
+        String courseId = symbols.intern(csv.field(0));
+        String courseName = csv.getString(1);
+        int credits = csv.getInt(2);
+        String department = symbols.intern(csv.field(3));
+
+        // Process prerequisites, split by semicolons
+        List<String> prerequisites = new ArrayList<>();
+        if (fieldCount == 5 && csv.field(4).length() > 0 && !csv.fieldEqualsIgnoreCase(4, "None")) {
+            prerequisites = splitPrerequisites(csv.field(4), symbols);
+        }
+
+        // Create a new Course object with the parsed data
+        return new Course(courseId, courseName, credits, department, prerequisites);
+    }
+
+    
+    
+    
+    
+    /**
+     * Splits a semicolon-separated list of prerequisite IDs in place, without a temporary String
+     * per ID. Like String.split, empty IDs at the end of the list are dropped.
+     * 
+     * Time complexity: O(k) for a field of k characters.
+     */
+    private static List<String> splitPrerequisites(CharSequence field, SymbolTable symbols) {
+        int count = 1;
+        for (int i = 0; i < field.length(); i++) {
+            if (field.charAt(i) == ';') {
+                count++;
+            }
+        }
+        String[] prerequisites = new String[count];
+        int start = 0;
+        int next = 0;
+        for (int i = 0; i <= field.length(); i++) {
+            if (i == field.length() || field.charAt(i) == ';') {
+                prerequisites[next++] = symbols.intern(field, start, i);
+                start = i + 1;
+            }
+        }
+        while (count > 0 && prerequisites[count - 1].isEmpty()) {
+            count--;
+        }
+        return Arrays.asList(count == prerequisites.length ? prerequisites : Arrays.copyOf(prerequisites, count));
+    }
+
+    
+    
+    
+    
+    /**
+     * Opens a catalog CSV as UTF-8 text: the file on disk if the path names one, otherwise the
+     * resource of that name in the resources folder.
+     * 
+     * @return The reader, or null if neither exists.
+     */
+    private static Reader openCatalog(String csvFilePath) throws IOException {
+        if (isFile(csvFilePath)) {
+            return Files.newBufferedReader(Paths.get(csvFilePath), StandardCharsets.UTF_8);
+        }
+        InputStream inputStream = AdvisingProgram.class.getClassLoader().getResourceAsStream(csvFilePath);
+        return inputStream == null ? null : new InputStreamReader(inputStream, StandardCharsets.UTF_8);
+    }
+
+    
+    
+    
+    
+    /**
+     * @return true if the path names a regular file on disk.
+     */
+    private static boolean isFile(String path) {
+        try {
+            return Files.isRegularFile(Paths.get(path));
+        } catch (InvalidPathException e) {
+            return false;
         }
     }
 
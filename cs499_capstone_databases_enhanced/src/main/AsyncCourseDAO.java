@@ -0,0 +1,220 @@
+package main;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Non-blocking variant of CourseDAO whose methods return CompletableFutures.
+ * Each call runs on a dedicated executor (virtual threads when the JVM supports them),
+ * and a semaphore bounds how many calls touch the database at the same time, so a
+ * caller can fan out the lookups for a student's whole plan without overrunning
+ * the connection pool.
+ *
+ * Cancellation: cancelling a returned future before its query has started means the
+ * query never runs. Once a query is running it cannot be interrupted (SQLite JDBC calls
+ * do not respond to thread interrupts); it finishes and its result is discarded.
+ *
+ * Timeouts: when a timeout is configured, every returned future completes exceptionally
+ * with a TimeoutException if it has not finished in time. A query that timed out behaves
+ * exactly like a cancelled one: it is skipped if it has not started, or discarded if it has.
+ */
+public class AsyncCourseDAO implements AutoCloseable {
+
+    /**
+     * A DAO call that produces a value.
+     */
+    private interface Query<T> {
+        T call() throws SQLException;
+    }
+
+    /**
+     * A DAO call that produces nothing.
+     */
+    private interface Update {
+        void run() throws SQLException;
+    }
+
+    private final CourseDAO courseDAO;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final long timeoutMillis;
+
+    /**
+     * Creates an asynchronous DAO on virtual threads (or 16 platform threads on older JVMs)
+     * with at most maxConcurrency queries running at once and no timeout.
+     */
+    public AsyncCourseDAO(CourseDAO courseDAO, int maxConcurrency) {
+        this(courseDAO, CourseQueryService.newExecutor("course-async", 16, true), maxConcurrency, 0);
+    }
+
+    /**
+     * Creates an asynchronous DAO.
+     *
+     * @param courseDAO       The DAO that performs the queries; it must be safe to share between threads.
+     * @param executor        The executor the queries run on; it is shut down by close().
+     * @param maxConcurrency  Maximum number of queries running at the same time.
+     * @param timeoutMillis   Time after which a returned future fails with a TimeoutException, or 0 for none.
+     */
+    public AsyncCourseDAO(CourseDAO courseDAO, ExecutorService executor, int maxConcurrency, long timeoutMillis) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("Concurrency limit must be at least 1: " + maxConcurrency);
+        }
+        this.courseDAO = courseDAO;
+        this.executor = executor;
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * @return A future holding the course, or null if it does not exist.
+     */
+    public CompletableFuture<Course> findCourseById(String courseId) {
+        return submit(() -> courseDAO.findCourseById(courseId));
+    }
+
+    /**
+     * Looks up several courses in parallel, one query per course.
+     * Cancelling the returned future, or its timing out, cancels every lookup that has not finished.
+     * If one lookup fails, the returned future fails with its exception straight away rather than
+     * after the other lookups; if the lookup timed out, the others are cancelled as well.
+     *
+     * @param courseIds The course IDs to look up.
+     * @return A future holding the courses found, in request order; missing courses are left out.
+     */
+    public CompletableFuture<List<Course>> findCoursesById(List<String> courseIds) {
+        List<CompletableFuture<Course>> lookups = new ArrayList<>(courseIds.size());
+        for (String courseId : courseIds) {
+            lookups.add(findCourseById(courseId));
+        }
+
+        CompletableFuture<List<Course>> result = CompletableFuture
+                .allOf(lookups.toArray(new CompletableFuture<?>[0]))
+                .thenApply(ignored -> {
+                    List<Course> courses = new ArrayList<>(lookups.size());
+                    for (CompletableFuture<Course> lookup : lookups) {
+                        Course course = lookup.join();
+                        if (course != null) {
+                            courses.add(course);
+                        }
+                    }
+                    return courses;
+                });
+        // allOf only completes once every lookup has, so fail the batch on the first failed lookup
+        for (CompletableFuture<Course> lookup : lookups) {
+            lookup.whenComplete((course, error) -> {
+                if (error != null) {
+                    result.completeExceptionally(unwrap(error));
+                }
+            });
+        }
+        result.whenComplete((courses, error) -> {
+            Throwable cause = unwrap(error);
+            if (cause instanceof CancellationException || cause instanceof TimeoutException) {
+                lookups.forEach(lookup -> lookup.cancel(false));
+            }
+        });
+        return withTimeout(result);
+    }
+
+    /**
+     * @return The exception a CompletionException wraps, or the exception itself.
+     */
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    /**
+     * @return A future holding every course, ordered by course ID.
+     */
+    public CompletableFuture<List<Course>> getAllCourses() {
+        return submit(courseDAO::getAllCourses);
+    }
+
+    /**
+     * @return A future holding one keyset page of courses.
+     * @see CourseDAO#listCourses(String, int)
+     */
+    public CompletableFuture<List<Course>> listCourses(String afterCourseId, int limit) {
+        return submit(() -> courseDAO.listCourses(afterCourseId, limit));
+    }
+
+    /**
+     * @return A future holding the prerequisite course IDs of a course.
+     */
+    public CompletableFuture<List<String>> getPrerequisites(String courseId) {
+        return submit(() -> courseDAO.getPrerequisites(courseId));
+    }
+
+    public CompletableFuture<Void> insertCourse(Course course) {
+        return submitUpdate(() -> courseDAO.insertCourse(course));
+    }
+
+    public CompletableFuture<Void> updateCourse(Course course) {
+        return submitUpdate(() -> courseDAO.updateCourse(course));
+    }
+
+    public CompletableFuture<Void> removeCourse(String courseId) {
+        return submitUpdate(() -> courseDAO.removeCourse(courseId));
+    }
+
+    private CompletableFuture<Void> submitUpdate(Update update) {
+        return submit(() -> {
+            update.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs a query on the executor once a concurrency permit is free.
+     * The query is skipped if the future was cancelled or timed out before it started.
+     */
+    private <T> CompletableFuture<T> submit(Query<T> query) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                if (result.isDone()) {
+                    return;
+                }
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    result.completeExceptionally(e);
+                    return;
+                }
+                try {
+                    if (!result.isDone()) {
+                        result.complete(query.call());
+                    }
+                } catch (Throwable t) {
+                    result.completeExceptionally(t);
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+        return withTimeout(result);
+    }
+
+    private <T> CompletableFuture<T> withTimeout(CompletableFuture<T> future) {
+        return timeoutMillis > 0 ? future.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS) : future;
+    }
+
+    /**
+     * Stops accepting new calls; calls already submitted still run.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
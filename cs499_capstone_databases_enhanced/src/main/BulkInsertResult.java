@@ -0,0 +1,70 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a bulk insert through CourseDAO.insertCourses.
+ * Records how many courses were committed and, for every course that
+ * could not be inserted, the course ID and the database error message.
+ */
+public class BulkInsertResult {
+
+    /**
+     * A single course that failed to insert.
+     */
+    public static class RowError {
+        private final String courseId;
+        private final String message;
+
+        public RowError(String courseId, String message) {
+            this.courseId = courseId;
+            this.message = message;
+        }
+
+        public String getCourseId() {
+            return courseId;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return courseId + ": " + message;
+        }
+    }
+
+    private int inserted;
+    private final List<RowError> errors = new ArrayList<>();
+
+    /**
+     * Creates an empty result, to be filled in by CourseDAO.insertCourses.
+     */
+    public BulkInsertResult() {
+    }
+
+    void addInserted(int count) {
+        inserted += count;
+    }
+
+    void addError(String courseId, String message) {
+        errors.add(new RowError(courseId, message));
+    }
+
+    /**
+     * @return The number of courses that were committed to the database.
+     */
+    public int getInserted() {
+        return inserted;
+    }
+
+    /**
+     * @return The courses that failed to insert, in input order.
+     */
+    public List<RowError> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+}
@@ -0,0 +1,168 @@
+package main;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * CourseDAO with a bounded, least-recently-used read-through cache in front of findCourseById.
+ * Advisors look up the same introductory courses again and again, so repeated lookups are
+ * served from memory instead of costing a connection and two queries each time.
+ *
+ * Entries are invalidated whenever a course is inserted, updated or removed through this DAO,
+ * and may optionally expire after a time-to-live. Hit, miss and eviction counters are kept
+ * for tuning the cache size.
+ */
+public class CachingCourseDAO extends CourseDAO {
+
+    /**
+     * A cached course and the time it was loaded.
+     */
+    private static class Entry {
+        final Course course;
+        final long loadedAt;
+
+        Entry(Course course, long loadedAt) {
+            this.course = course;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final LinkedHashMap<String, Entry> cache;
+
+    // Incremented on every invalidation so a lookup that raced with a write does not cache stale data
+    private long writeVersion;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+
+    /**
+     * Creates a caching DAO.
+     *
+     * @param maxSize    Maximum number of courses kept in the cache.
+     * @param ttlMillis  How long an entry stays valid, or 0 for no expiry.
+     */
+    public CachingCourseDAO(int maxSize, long ttlMillis) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size must be at least 1: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        // Access-ordered map: iteration starts at the least recently used entry
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > CachingCourseDAO.this.maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the course from the cache if present and not expired, otherwise loads it
+     * from the database and caches it. Courses that do not exist are not cached.
+     * Every caller of a cached course gets the same object, so its prerequisite list is
+     * unmodifiable; a caller cannot change what the others see.
+     *
+     * Time complexity: O(1) on a cache hit.
+     */
+    @Override
+    public Course findCourseById(String courseId) throws SQLException {
+        long version;
+        synchronized (this) {
+            Entry entry = cache.get(courseId);
+            if (entry != null) {
+                if (ttlMillis <= 0 || System.currentTimeMillis() - entry.loadedAt < ttlMillis) {
+                    hits++;
+                    return entry.course;
+                }
+                cache.remove(courseId);
+                expirations++;
+            }
+            misses++;
+            version = writeVersion;
+        }
+
+        // Load outside the lock so slow queries do not block cache hits
+        Course course = super.findCourseById(courseId);
+
+        if (course != null) {
+            course = CatalogSnapshot.freeze(course);
+            synchronized (this) {
+                if (version == writeVersion) {
+                    cache.put(courseId, new Entry(course, System.currentTimeMillis()));
+                }
+            }
+        }
+        return course;
+    }
+
+    /**
+     * Drops a course from the cache after it has been written.
+     */
+    @Override
+    protected void courseChanged(String courseId) {
+        invalidate(courseId);
+    }
+
+    /**
+     * Drops every cached course after a bulk write.
+     */
+    @Override
+    protected void catalogChanged() {
+        invalidateAll();
+    }
+
+    /**
+     * Removes one course from the cache.
+     */
+    public synchronized void invalidate(String courseId) {
+        writeVersion++;
+        cache.remove(courseId);
+    }
+
+    /**
+     * Removes every course from the cache.
+     */
+    public synchronized void invalidateAll() {
+        writeVersion++;
+        cache.clear();
+    }
+
+    public synchronized int size() {
+        return cache.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized long getExpirations() {
+        return expirations;
+    }
+
+    /**
+     * @return A one-line summary of the cache counters.
+     */
+    public synchronized String getStats() {
+        long lookups = hits + misses;
+        double hitRate = lookups == 0 ? 0.0 : 100.0 * hits / lookups;
+        return String.format("Course cache: size %d/%d, hits %d, misses %d (%.1f%% hit rate), evictions %d, expirations %d",
+                cache.size(), maxSize, hits, misses, hitRate, evictions, expirations);
+    }
+}
@@ -0,0 +1,150 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, hash-indexed in-memory copy of the whole course catalog.
+ * A snapshot never changes once built, so any number of threads can read it without locking.
+ * Updates produce a new snapshot (copy-on-write) that is published atomically by SnapshotCourseDAO;
+ * readers holding the old snapshot keep a consistent view until they fetch the new one.
+ */
+public final class CatalogSnapshot {
+
+    private static final Comparator<Course> BY_COURSE_ID = Comparator.comparing(Course::getCourseId);
+
+    private final Map<String, Course> byId;     // O(1) lookups by course ID
+    private final List<Course> sorted;          // All courses in course ID order
+
+    private CatalogSnapshot(Map<String, Course> byId, List<Course> sorted) {
+        this.byId = byId;
+        this.sorted = sorted;
+    }
+
+    /**
+     * Builds a snapshot from a list of courses.
+     *
+     * Time complexity: O(n log n) for n courses.
+     */
+    public static CatalogSnapshot of(List<Course> courses) {
+        Map<String, Course> byId = new HashMap<>(courses.size() * 4 / 3 + 1);
+        for (Course course : courses) {
+            byId.put(course.getCourseId(), freeze(course));
+        }
+        List<Course> sorted = new ArrayList<>(byId.values());
+        sorted.sort(BY_COURSE_ID);
+        return new CatalogSnapshot(Collections.unmodifiableMap(byId), Collections.unmodifiableList(sorted));
+    }
+
+    /**
+     * Returns a new snapshot with the course added or replaced; this snapshot is unchanged.
+     *
+     * Time complexity: O(n) to copy the index and the sorted list.
+     */
+    public CatalogSnapshot withCourse(Course course) {
+        Course frozen = freeze(course);
+        Map<String, Course> byId = new HashMap<>(this.byId);
+        boolean replaced = byId.put(frozen.getCourseId(), frozen) != null;
+
+        List<Course> sorted = new ArrayList<>(this.sorted.size() + 1);
+        sorted.addAll(this.sorted);
+        int index = Collections.binarySearch(sorted, frozen, BY_COURSE_ID);
+        if (replaced && index >= 0) {
+            sorted.set(index, frozen);
+        } else {
+            sorted.add(-(index + 1), frozen);
+        }
+        return new CatalogSnapshot(Collections.unmodifiableMap(byId), Collections.unmodifiableList(sorted));
+    }
+
+    /**
+     * Returns a new snapshot without the course; this snapshot is unchanged.
+     *
+     * Time complexity: O(n) to copy the index and the sorted list.
+     */
+    public CatalogSnapshot withoutCourse(String courseId) {
+        Course existing = byId.get(courseId);
+        if (existing == null) {
+            return this;
+        }
+        Map<String, Course> byId = new HashMap<>(this.byId);
+        byId.remove(courseId);
+        List<Course> sorted = new ArrayList<>(this.sorted);
+        sorted.remove(Collections.binarySearch(sorted, existing, BY_COURSE_ID));
+        return new CatalogSnapshot(Collections.unmodifiableMap(byId), Collections.unmodifiableList(sorted));
+    }
+
+    /**
+     * Returns a new snapshot with many courses added, replaced or removed at once; this snapshot is unchanged.
+     * Cheaper than repeated withCourse/withoutCourse calls because the catalog is copied only once.
+     *
+     * Time complexity: O(n log n) for a catalog of n courses.
+     *
+     * @param upserts   Courses to add or replace.
+     * @param removals  IDs of courses to remove.
+     */
+    public CatalogSnapshot withChanges(Collection<Course> upserts, Collection<String> removals) {
+        if (upserts.isEmpty() && removals.isEmpty()) {
+            return this;
+        }
+        Map<String, Course> byId = new HashMap<>(this.byId);
+        for (String courseId : removals) {
+            byId.remove(courseId);
+        }
+        for (Course course : upserts) {
+            byId.put(course.getCourseId(), freeze(course));
+        }
+        List<Course> sorted = new ArrayList<>(byId.values());
+        sorted.sort(BY_COURSE_ID);
+        return new CatalogSnapshot(Collections.unmodifiableMap(byId), Collections.unmodifiableList(sorted));
+    }
+
+    /**
+     * @return The course, or null if it is not in the catalog.
+     */
+    public Course get(String courseId) {
+        return byId.get(courseId);
+    }
+
+    /**
+     * @return All courses in course ID order, as an unmodifiable list.
+     */
+    public List<Course> getCourses() {
+        return sorted;
+    }
+
+    /**
+     * Returns up to limit courses whose IDs sort after afterCourseId, like CourseDAO.listCourses.
+     *
+     * Time complexity: O(log n + k) for a page of k courses.
+     */
+    public List<Course> page(String afterCourseId, int limit) {
+        int start = 0;
+        if (afterCourseId != null) {
+            int index = Collections.binarySearch(sorted,
+                    new Course(afterCourseId, null, 0, null, List.of()), BY_COURSE_ID);
+            start = index >= 0 ? index + 1 : -(index + 1);
+        }
+        int end = (int) Math.min(sorted.size(), (long) start + Math.max(limit, 0));
+        return sorted.subList(start, end);
+    }
+
+    public int size() {
+        return sorted.size();
+    }
+
+    /**
+     * Copies a course with an unmodifiable prerequisite list so readers cannot change the snapshot.
+     * CachingCourseDAO uses it for the same reason.
+     */
+    static Course freeze(Course course) {
+        List<String> prerequisites = course.getPrerequisites() == null ? List.of() : List.copyOf(course.getPrerequisites());
+        return new Course(course.getCourseId(), course.getCourseName(), course.getCredits(),
+                course.getDepartment(), prerequisites);
+    }
+}
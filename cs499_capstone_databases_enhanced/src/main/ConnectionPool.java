@@ -0,0 +1,491 @@
+package main;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded pool of reusable SQLite connections.
+ * Connections handed out by the pool are lightweight wrappers around a physical
+ * connection; calling close() on them returns the physical connection to the pool
+ * instead of closing it, so callers can keep using try-with-resources as before.
+ *
+ * Idle connections that have not been used for longer than the idle timeout are
+ * closed, and connections that have been idle for longer than the health check
+ * interval are validated before they are handed out again.
+ *
+ * Each physical connection also keeps a small LRU cache of prepared statements keyed
+ * by SQL text, so hot queries are parsed and planned by SQLite only once per connection.
+ * Closing a cached statement resets it and keeps it for the next caller.
+ */
+public class ConnectionPool {
+
+    private final String url;
+    private final int maxSize;
+    private final long idleTimeoutMillis;
+    private final long healthCheckIntervalMillis;
+    private final long borrowTimeoutMillis;
+    private final int statementCacheSize;
+
+    // Statement cache counters across all connections
+    private final LongAdder statementCacheHits = new LongAdder();
+    private final LongAdder statementCacheMisses = new LongAdder();
+
+    // Idle connections, most recently returned first
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    // One permit per connection that may be checked out at the same time
+    private final Semaphore permits;
+    private volatile boolean closed;
+
+    /**
+     * Creates a pool for the given JDBC URL.
+     *
+     * @param url                        The JDBC URL of the database.
+     * @param maxSize                    Maximum number of connections open at the same time.
+     * @param idleTimeoutMillis          Idle connections older than this are closed.
+     * @param healthCheckIntervalMillis  Connections idle for longer than this are validated before reuse.
+     * @param borrowTimeoutMillis        How long a caller waits for a free connection before failing.
+     * @param statementCacheSize         Prepared statements cached per connection, or 0 to disable caching.
+     */
+    public ConnectionPool(String url, int maxSize, long idleTimeoutMillis,
+                          long healthCheckIntervalMillis, long borrowTimeoutMillis, int statementCacheSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1: " + maxSize);
+        }
+        this.url = url;
+        this.maxSize = maxSize;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.healthCheckIntervalMillis = healthCheckIntervalMillis;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.statementCacheSize = statementCacheSize;
+        this.permits = new Semaphore(maxSize, true);
+    }
+
+    /**
+     * Borrows a connection from the pool, opening a new physical connection
+     * only if no healthy idle connection is available.
+     *
+     * Time complexity: O(1) when an idle connection is reused.
+     *
+     * @return A pooled connection; closing it returns it to the pool.
+     * @throws SQLException if the pool is closed, exhausted for longer than the
+     *                      borrow timeout, or a new connection cannot be opened.
+     */
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed.");
+        }
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timed out after " + borrowTimeoutMillis
+                        + " ms waiting for a database connection (pool size " + maxSize + ").");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection.", e);
+        }
+
+        try {
+            evictExpired();
+            PooledConnection pooled;
+            while ((pooled = idle.pollFirst()) != null) {
+                if (isHealthy(pooled)) {
+                    return pooled.checkOut();
+                }
+                closeQuietly(pooled.physical);
+            }
+            return new PooledConnection(open()).checkOut();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens a new physical connection to the database.
+     * Subclasses and the DatabaseManager may customize connection setup here.
+     */
+    protected Connection open() throws SQLException {
+        return DriverManager.getConnection(url);
+    }
+
+    /**
+     * Returns a connection to the pool, or closes it if the pool has been shut down
+     * or the connection can no longer be reused.
+     */
+    private void release(PooledConnection pooled) {
+        try {
+            boolean reusable = !closed && !pooled.physical.isClosed();
+            if (reusable && !pooled.physical.getAutoCommit()) {
+                // Never hand out a connection with a half-finished transaction
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+            if (reusable) {
+                pooled.lastUsed = System.currentTimeMillis();
+                idle.offerFirst(pooled);
+            } else {
+                closeQuietly(pooled.physical);
+            }
+        } catch (SQLException e) {
+            closeQuietly(pooled.physical);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Validates a connection that has been idle for longer than the health check interval.
+     */
+    private boolean isHealthy(PooledConnection pooled) {
+        if (System.currentTimeMillis() - pooled.lastUsed < healthCheckIntervalMillis) {
+            return true;
+        }
+        try {
+            return pooled.physical.isValid(2);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Closes idle connections that have not been used within the idle timeout.
+     * The oldest connections sit at the tail of the deque.
+     */
+    private void evictExpired() {
+        long cutoff = System.currentTimeMillis() - idleTimeoutMillis;
+        Iterator<PooledConnection> it = idle.descendingIterator();
+        while (it.hasNext()) {
+            PooledConnection pooled = it.next();
+            if (pooled.lastUsed >= cutoff) {
+                break;
+            }
+            if (idle.removeLastOccurrence(pooled)) {
+                closeQuietly(pooled.physical);
+            }
+        }
+    }
+
+    /**
+     * @return The number of idle connections currently held by the pool.
+     */
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    /**
+     * @return The number of connections currently checked out of the pool.
+     */
+    public int getActiveCount() {
+        return maxSize - permits.availablePermits();
+    }
+
+    /**
+     * @return The number of prepareStatement calls served from a connection's statement cache.
+     */
+    public long getStatementCacheHits() {
+        return statementCacheHits.sum();
+    }
+
+    /**
+     * @return The number of prepareStatement calls that had to prepare a new statement.
+     */
+    public long getStatementCacheMisses() {
+        return statementCacheMisses.sum();
+    }
+
+    /**
+     * @return A one-line summary of the statement cache counters.
+     */
+    public String getStatementCacheStats() {
+        long hits = getStatementCacheHits();
+        long lookups = hits + getStatementCacheMisses();
+        double hitRate = lookups == 0 ? 0.0 : 100.0 * hits / lookups;
+        return String.format("Statement cache: hits %d, misses %d (%.1f%% hit rate), %d per connection",
+                hits, lookups - hits, hitRate, statementCacheSize);
+    }
+
+    /**
+     * Closes all idle connections and prevents further borrowing.
+     * Connections still checked out are closed when they are returned.
+     */
+    public void close() {
+        closed = true;
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            closeQuietly(pooled.physical);
+        }
+    }
+
+    private static void closeQuietly(AutoCloseable resource) {
+        try {
+            resource.close();
+        } catch (Exception e) {
+            // Nothing useful can be done if closing fails
+        }
+    }
+
+    /**
+     * A physical connection owned by the pool, together with its statement cache.
+     */
+    private final class PooledConnection {
+        final Connection physical;
+        volatile long lastUsed = System.currentTimeMillis();
+
+        // Access-ordered so the least recently used statement is evicted first
+        private final LinkedHashMap<String, CachedStatement> statements =
+                new LinkedHashMap<>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                        if (size() > statementCacheSize && !eldest.getValue().inUse) {
+                            closeQuietly(eldest.getValue().statement);
+                            return true;
+                        }
+                        return false;
+                    }
+                };
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        /**
+         * Wraps the physical connection in a handle whose close() returns it to the pool.
+         * Each checkout gets its own handle so a stale handle cannot release the connection twice.
+         */
+        Connection checkOut() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[] { Connection.class },
+                    new Handle(this));
+        }
+
+        /**
+         * Returns a cached statement for the SQL if one is free, otherwise prepares a new one.
+         * A statement already in use by the same borrower is never handed out twice.
+         */
+        synchronized PreparedStatement prepare(String sql) throws SQLException {
+            if (statementCacheSize <= 0) {
+                statementCacheMisses.increment();
+                return physical.prepareStatement(sql);
+            }
+            CachedStatement cached = statements.get(sql);
+            if (cached != null && !cached.inUse && !cached.statement.isClosed()) {
+                statementCacheHits.increment();
+            } else if (cached != null && cached.inUse) {
+                // Same SQL prepared twice at once: the second one is not cached
+                statementCacheMisses.increment();
+                return physical.prepareStatement(sql);
+            } else {
+                statementCacheMisses.increment();
+                cached = new CachedStatement(physical.prepareStatement(sql));
+                statements.put(sql, cached);
+            }
+            cached.inUse = true;
+            cached.resultSet = null;
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[] { PreparedStatement.class },
+                    new StatementHandle(this, cached));
+        }
+
+        /**
+         * Resets a cached statement for reuse once the borrower has closed it.
+         */
+        synchronized void recycle(CachedStatement cached) {
+            try {
+                if (cached.resultSet != null) {
+                    cached.resultSet.close();
+                }
+                cached.statement.clearParameters();
+                cached.statement.clearBatch();
+            } catch (SQLException e) {
+                // A statement that cannot be reset is dropped from the cache
+                statements.values().remove(cached);
+                closeQuietly(cached.statement);
+            } finally {
+                cached.resultSet = null;
+                cached.inUse = false;
+            }
+        }
+    }
+
+    /**
+     * A prepared statement kept open in a connection's statement cache.
+     */
+    private static final class CachedStatement {
+        final PreparedStatement statement;
+        boolean inUse;
+        ResultSet resultSet;   // Last result set opened by the current borrower
+
+        CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+        }
+    }
+
+    /**
+     * Invocation handler for a cached statement handed to a borrower.
+     * close() resets the statement and returns it to the cache instead of closing it.
+     */
+    private static final class StatementHandle implements InvocationHandler {
+        private final PooledConnection owner;
+        private final CachedStatement cached;
+        private boolean closed;
+
+        StatementHandle(PooledConnection owner, CachedStatement cached) {
+            this.owner = owner;
+            this.cached = cached;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        owner.recycle(cached);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || cached.statement.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return cached.statement.toString();
+                default:
+                    if (closed) {
+                        throw new SQLException("Statement has already been closed.");
+                    }
+            }
+            // Statement execution is timed for the DAO operation running on this thread
+            boolean execute = method.getName().startsWith("execute");
+            long start = execute ? System.nanoTime() : 0;
+            try {
+                Object result = method.invoke(cached.statement, args);
+                if (result instanceof ResultSet) {
+                    cached.resultSet = (ResultSet) result;
+                }
+                if (execute) {
+                    DaoMetrics.recordExecute(System.nanoTime() - start, rowsWritten(result));
+                }
+                return result;
+            } catch (InvocationTargetException e) {
+                if (execute) {
+                    DaoMetrics.recordExecute(System.nanoTime() - start, 0);
+                    DaoMetrics.recordError();
+                }
+                throw e.getCause();
+            }
+        }
+
+        /**
+         * Counts the rows changed by an executeUpdate or executeBatch result.
+         */
+        private static long rowsWritten(Object result) {
+            if (result instanceof Integer) {
+                return (Integer) result;
+            }
+            if (result instanceof Long) {
+                return (Long) result;
+            }
+            long rows = 0;
+            if (result instanceof int[]) {
+                for (int count : (int[]) result) {
+                    // SUCCESS_NO_INFO (-2) still means one statement succeeded
+                    rows += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+                }
+            }
+            return rows;
+        }
+    }
+
+    /**
+     * Invocation handler for a checked-out connection handle.
+     */
+    private final class Handle implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean released;
+
+        Handle(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public synchronized Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!released) {
+                        released = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return released || pooled.physical.isClosed();
+                case "prepareStatement":
+                    if (released) {
+                        throw new SQLException("Connection has already been returned to the pool.");
+                    }
+                    if (args.length == 1) {
+                        long start = System.nanoTime();
+                        try {
+                            return pooled.prepare((String) args[0]);
+                        } finally {
+                            DaoMetrics.recordPrepare(System.nanoTime() - start);
+                        }
+                    }
+                    break;
+                case "commit":
+                case "rollback":
+                    if (released) {
+                        throw new SQLException("Connection has already been returned to the pool.");
+                    }
+                    long start = System.nanoTime();
+                    try {
+                        return method.invoke(pooled.physical, args);
+                    } catch (InvocationTargetException e) {
+                        DaoMetrics.recordError();
+                        throw e.getCause();
+                    } finally {
+                        DaoMetrics.recordExecute(System.nanoTime() - start, 0);
+                    }
+                case "unwrap":
+                case "isWrapperFor":
+                case "equals":
+                case "hashCode":
+                case "toString":
+                    break;
+                default:
+                    if (released) {
+                        throw new SQLException("Connection has already been returned to the pool.");
+                    }
+            }
+            if (method.getName().equals("equals")) {
+                return proxy == args[0];
+            }
+            if (method.getName().equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            try {
+                return method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
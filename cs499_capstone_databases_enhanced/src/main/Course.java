@@ -1,5 +1,9 @@
 package main;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.List;
 
 /**
@@ -62,6 +66,46 @@ public class Course {
         return prerequisites;
     }
 
+    /**
+     * Returns a SHA-256 checksum of all course fields, including the prerequisites in order.
+     * Two courses have the same checksum exactly when all of their data is the same, which
+     * lets an incremental import detect changed rows without comparing every column.
+     * 
+     * @return The checksum as a lowercase hex string.
+     */
+    public String getChecksum() {
+        StringBuilder sb = new StringBuilder();
+        // Each field is prefixed with its length rather than separated by a delimiter: a quoted CSV
+        // field can contain any character, so no delimiter could keep two different courses apart
+        appendField(sb, courseId);
+        appendField(sb, courseName);
+        appendField(sb, String.valueOf(credits));
+        appendField(sb, department);
+        if (prerequisites != null) {
+            for (String prereq : prerequisites) {
+                appendField(sb, prereq);
+            }
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(sb.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Appends a field to the checksum input as its length, a colon and its text; null is written as "-1:".
+     */
+    private static void appendField(StringBuilder sb, String field) {
+        if (field == null) {
+            sb.append("-1:");
+        } else {
+            sb.append(field.length()).append(':').append(field);
+        }
+    }
+
     /**
      * Overrides the default toString method to provide a string 
      * representation of the course, including its ID, name, credits, 
@@ -0,0 +1,264 @@
+package main;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sequenced log of course changes, used to keep in-memory CourseReplica copies in sync
+ * with the database without re-reading the whole catalog.
+ *
+ * Triggers on Course and Prerequisite append the changed course ID to the CourseChange table
+ * in the same transaction as the write, so every insert, update and removal made through
+ * CourseDAO (including bulk and incremental imports and write-behind commits) is logged
+ * exactly when it commits. A log entry carries only the course ID; readers fetch the course's
+ * current state, which makes applying a change idempotent and lets old entries for the same
+ * course be dropped.
+ *
+ * Compaction drops entries superseded by a later entry for the same course, which never
+ * affects any reader, and can also truncate the log up to a sequence number. Positions before
+ * the truncation point are no longer valid; replicas behind it fall back to a full resync.
+ */
+public class CourseChangeLog {
+
+    /**
+     * Changes read from the log: the current state of every changed course that still exists,
+     * the IDs of changed courses that no longer exist, and the sequence number the reader has
+     * reached after applying them.
+     */
+    public static class ChangeBatch {
+        private final long position;
+        private final boolean fullResync;
+        private final List<Course> upserts;
+        private final List<String> removals;
+
+        ChangeBatch(long position, boolean fullResync, List<Course> upserts, List<String> removals) {
+            this.position = position;
+            this.fullResync = fullResync;
+            this.upserts = upserts;
+            this.removals = removals;
+        }
+
+        /**
+         * @return The sequence number of the last change covered by this batch.
+         */
+        public long getPosition() {
+            return position;
+        }
+
+        /**
+         * @return true if the batch holds the whole catalog and replaces the reader's state.
+         */
+        public boolean isFullResync() {
+            return fullResync;
+        }
+
+        public List<Course> getUpserts() {
+            return upserts;
+        }
+
+        public List<String> getRemovals() {
+            return removals;
+        }
+
+        public boolean isEmpty() {
+            return !fullResync && upserts.isEmpty() && removals.isEmpty();
+        }
+    }
+
+    private final CourseDAO courseDAO;
+
+    // Replicas reading this log; the slowest one limits how far compact() truncates
+    private final Set<CourseReplica> subscribers = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param courseDAO Used to read the current state of changed courses.
+     */
+    public CourseChangeLog(CourseDAO courseDAO) {
+        this.courseDAO = courseDAO;
+    }
+
+    /**
+     * Creates a replica holding a full copy of the catalog, positioned at the end of the log.
+     *
+     * @throws SQLException if the catalog cannot be read.
+     */
+    public CourseReplica subscribe() throws SQLException {
+        CourseReplica replica = new CourseReplica(this, CatalogSnapshot.of(List.of()), -1);
+        replica.catchUp();
+        subscribers.add(replica);
+        return replica;
+    }
+
+    /**
+     * Resumes a replica from state saved earlier, e.g. before a restart. It catches up from
+     * position, or resyncs the whole catalog if the log has been truncated past that position.
+     *
+     * @param state     The replica's catalog as of position.
+     * @param position  The sequence number the state reflects, from CourseReplica.getPosition().
+     * @throws SQLException if the log or catalog cannot be read.
+     */
+    public CourseReplica subscribe(CatalogSnapshot state, long position) throws SQLException {
+        CourseReplica replica = new CourseReplica(this, state, position);
+        replica.catchUp();
+        subscribers.add(replica);
+        return replica;
+    }
+
+    void unsubscribe(CourseReplica replica) {
+        subscribers.remove(replica);
+    }
+
+    /**
+     * Reads up to limit log entries after a position, together with the current state of the
+     * courses they name. Everything is read in one transaction so the states match the position.
+     * If the log has been truncated past the position, the whole catalog is returned instead.
+     *
+     * Time complexity: O(k log n + m) for k logged changes with m prerequisites in total.
+     *
+     * @param position  The last sequence number already applied, or -1 to start with a full resync.
+     * @param limit     Maximum number of log entries to read.
+     * @throws SQLException if the log cannot be read.
+     */
+    public ChangeBatch readChanges(long position, int limit) throws SQLException {
+        DaoMetrics.Operation op = DaoMetrics.begin("readChanges");
+        try (op; Connection conn = DatabaseManager.connect()) {
+            // One read transaction, so the log entries and the course rows come from the same snapshot.
+            // It is ended by committing, or rolled back by the pool if reading fails.
+            conn.setAutoCommit(false);
+            ChangeBatch batch;
+            if (position < 0 || position < getCompactedThrough(conn)) {
+                batch = readAll(conn);
+            } else {
+                Set<String> changed = new LinkedHashSet<>();
+                long reached = position;
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "SELECT seq, courseId FROM CourseChange WHERE seq > ? ORDER BY seq LIMIT ?")) {
+                    pstmt.setLong(1, position);
+                    pstmt.setInt(2, limit);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            reached = rs.getLong("seq");
+                            changed.add(rs.getString("courseId"));
+                        }
+                    }
+                }
+                DaoMetrics.addRowsRead(changed.size());
+
+                List<Course> upserts = new ArrayList<>();
+                courseDAO.readCoursesById(changed, conn, upserts::add);
+                for (Course course : upserts) {
+                    changed.remove(course.getCourseId());
+                }
+                batch = new ChangeBatch(reached, false, upserts, new ArrayList<>(changed));
+            }
+            conn.commit();
+            return batch;
+        }
+    }
+
+    /**
+     * Reads the whole catalog and the log position it corresponds to.
+     */
+    private ChangeBatch readAll(Connection conn) throws SQLException {
+        long position = getLatestSequence(conn);
+        List<Course> courses = new ArrayList<>();
+        courseDAO.forEachCourse(conn, new SymbolTable(), courses::add);
+        return new ChangeBatch(position, true, courses, List.of());
+    }
+
+    /**
+     * @return The sequence number of the most recent change, or 0 if nothing has been logged.
+     */
+    public long getLatestSequence() throws SQLException {
+        try (Connection conn = DatabaseManager.connect()) {
+            return getLatestSequence(conn);
+        }
+    }
+
+    private static long getLatestSequence(Connection conn) throws SQLException {
+        // sqlite_sequence keeps the highest sequence number even after the log is truncated
+        return queryLong(conn, "SELECT COALESCE((SELECT seq FROM sqlite_sequence WHERE name = 'CourseChange'), 0)");
+    }
+
+    private static long getCompactedThrough(Connection conn) throws SQLException {
+        return queryLong(conn, "SELECT compactedThrough FROM CourseChangeCompaction WHERE id = 1");
+    }
+
+    /**
+     * Compacts the log: drops every entry superseded by a later entry for the same course, then
+     * truncates the log up to the position of the slowest subscribed replica. Without subscribers
+     * only superseded entries are dropped, so the log stays bounded by the number of courses and
+     * replicas resuming from saved positions can still catch up.
+     *
+     * Time complexity: O(e log e) for e log entries.
+     *
+     * @return The number of log entries removed.
+     * @throws SQLException if the log cannot be compacted.
+     */
+    public int compact() throws SQLException {
+        long truncateThrough = -1;
+        for (CourseReplica replica : subscribers) {
+            long position = replica.getPosition();
+            truncateThrough = truncateThrough < 0 ? position : Math.min(truncateThrough, position);
+        }
+
+        DaoMetrics.Operation op = DaoMetrics.begin("compactChangeLog");
+        try (op; Connection conn = DatabaseManager.connect()) {
+            conn.setAutoCommit(false);
+            int removed;
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "DELETE FROM CourseChange WHERE seq < (SELECT MAX(later.seq) FROM CourseChange later"
+                            + " WHERE later.courseId = CourseChange.courseId)")) {
+                removed = pstmt.executeUpdate();
+            }
+            if (truncateThrough > 0) {
+                removed += truncate(conn, truncateThrough);
+            }
+            conn.commit();
+            return removed;
+        }
+    }
+
+    /**
+     * Removes every log entry up to and including a sequence number. Readers positioned before
+     * it will have to resync the whole catalog.
+     *
+     * @return The number of log entries removed.
+     * @throws SQLException if the log cannot be truncated.
+     */
+    public int compactThrough(long sequence) throws SQLException {
+        DaoMetrics.Operation op = DaoMetrics.begin("compactChangeLog");
+        try (op; Connection conn = DatabaseManager.connect()) {
+            conn.setAutoCommit(false);
+            int removed = truncate(conn, sequence);
+            conn.commit();
+            return removed;
+        }
+    }
+
+    private static int truncate(Connection conn, long sequence) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "UPDATE CourseChangeCompaction SET compactedThrough = MAX(compactedThrough, ?) WHERE id = 1")) {
+            pstmt.setLong(1, sequence);
+            pstmt.executeUpdate();
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM CourseChange WHERE seq <= ?")) {
+            pstmt.setLong(1, sequence);
+            return pstmt.executeUpdate();
+        }
+    }
+
+    private static long queryLong(Connection conn, String sql) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+}
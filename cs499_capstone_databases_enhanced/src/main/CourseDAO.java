@@ -4,8 +4,17 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Savepoint;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Data Access Object (DAO) class for managing course-related operations in the SQLite database.
@@ -14,67 +23,749 @@ import java.util.List;
  */
 public class CourseDAO {
 
+    // Number of courses committed per transaction by insertCourses (-Dadvising.import.batchSize)
+    public static final int DEFAULT_BATCH_SIZE = Integer.getInteger("advising.import.batchSize", 1000);
+
+    private static final String INSERT_COURSE_SQL =
+            "INSERT INTO Course(courseId, courseName, credits, department, checksum) VALUES(?, ?, ?, ?, ?)";
+    private static final String UPSERT_COURSE_SQL = INSERT_COURSE_SQL
+            + " ON CONFLICT(courseId) DO UPDATE SET courseName = excluded.courseName, credits = excluded.credits,"
+            + " department = excluded.department, checksum = excluded.checksum";
+    private static final String INSERT_PREREQUISITE_SQL =
+            "INSERT INTO Prerequisite(courseId, prerequisiteId) VALUES(?, ?)";
+
+    // Most course IDs bound in one IN (...) list, well below SQLite's parameter limit
+    private static final int MAX_IN_LIST = 500;
+
+    // Course filters of the indexed finders, each answered from the migration 6 indexes
+    static final String BY_DEPARTMENT = "department = ?";
+    static final String BY_CREDIT_RANGE = "credits BETWEEN ? AND ?";
+    static final String BY_DEPARTMENT_AND_CREDITS = "department = ? AND credits BETWEEN ? AND ?";
+
+    /**
+     * Creates a DAO over the shared database; connections are borrowed from DatabaseManager per call.
+     */
+    public CourseDAO() {
+    }
+
     /**
      * Inserts a new course into the Course table in the SQLite database.
      * If the course has prerequisites, they are also inserted into the Prerequisite table.
+     * The course and its prerequisites are committed together in one transaction.
      * 
      * Time complexity: O(1) for inserting the course and O(m) for inserting the prerequisites, where m is the number of prerequisites.
      */
     public void insertCourse(Course course) throws SQLException {
-        String courseSql = "INSERT INTO Course(courseId, courseName, credits, department) VALUES(?, ?, ?, ?)";
+        DaoMetrics.Operation op = DaoMetrics.begin("insertCourse");
+        try (op; Connection conn = DatabaseManager.connect()) {
+            conn.setAutoCommit(false);
+            insertCourse(course, conn);
+            conn.commit();
+        } finally {
+            courseChanged(course.getCourseId());
+        }
+    }
 
-        try (Connection conn = DatabaseManager.connect();
-             PreparedStatement pstmt = conn.prepareStatement(courseSql)) {
+
+
+
+    /**
+     * Inserts a course and its prerequisites on the given connection without committing.
+     */
+    void insertCourse(Course course, Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(INSERT_COURSE_SQL)) {
             // Insert course details into the Course table
-            pstmt.setString(1, course.getCourseId());
-            pstmt.setString(2, course.getCourseName());
-            pstmt.setInt(3, course.getCredits());
-            pstmt.setString(4, course.getDepartment());
+            bindCourse(course, pstmt);
             pstmt.executeUpdate();
+        }
+
+        // Insert prerequisites into the Prerequisite table
+        insertPrerequisites(course, conn);
+    }
 
-            // Insert prerequisites into the Prerequisite table
-            if (course.getPrerequisites() != null && !course.getPrerequisites().isEmpty()) {
-                String prereqSql = "INSERT INTO Prerequisite(courseId, prerequisiteId) VALUES(?, ?)";
-                try (PreparedStatement prereqStmt = conn.prepareStatement(prereqSql)) {
+
+
+
+    /**
+     * Called after a course has been inserted, updated or removed, whether or not the write succeeded.
+     * Subclasses that keep copies of course data override this to drop the stale copy.
+     * 
+     * @param courseId The ID of the course that was written.
+     */
+    protected void courseChanged(String courseId) {
+    }
+
+
+
+
+    /**
+     * Called after a write that changed several known courses, whether or not it succeeded.
+     * By default calls courseChanged for each of them; subclasses can refresh them together.
+     * 
+     * @param courseIds The IDs of the courses that were written.
+     */
+    protected void coursesChanged(Collection<String> courseIds) {
+        for (String courseId : courseIds) {
+            courseChanged(courseId);
+        }
+    }
+
+
+
+
+    /**
+     * Called after a bulk write that may have changed any number of courses.
+     * Subclasses that keep copies of course data override this to drop all of them.
+     */
+    protected void catalogChanged() {
+    }
+
+
+
+
+    /**
+     * Inserts many courses using JDBC batching, committing every DEFAULT_BATCH_SIZE courses.
+     *
+     * @see #insertCourses(Iterable, int)
+     */
+    public BulkInsertResult insertCourses(Iterable<Course> courses) throws SQLException {
+        return insertCourses(courses, DEFAULT_BATCH_SIZE);
+    }
+
+
+
+
+    /**
+     * Inserts many courses using JDBC batching on a single connection.
+     * Courses are committed in chunks of batchSize, so a large import costs one
+     * transaction per chunk instead of one per course. If a chunk fails, it is
+     * rolled back and replayed course by course so that only the offending courses
+     * are skipped; each of them is reported in the returned result.
+     *
+     * Time complexity: O(n + m), where n is the number of courses and m is the total number of prerequisites.
+     *
+     * @param courses    The courses to insert.
+     * @param batchSize  Number of courses per transaction.
+     * @return The number of inserted courses and the per-course errors.
+     * @throws SQLException if the connection fails or a chunk cannot be committed.
+     */
+    public BulkInsertResult insertCourses(Iterable<Course> courses, int batchSize) throws SQLException {
+        BulkInsertResult result = new BulkInsertResult();
+        insertCourses(courses, batchSize, result);
+        return result;
+    }
+
+
+
+
+    /**
+     * Inserts many courses like insertCourses(Iterable, int), recording progress in a result
+     * owned by the caller, so the committed count survives an exception part way through.
+     */
+    void insertCourses(Iterable<Course> courses, int batchSize, BulkInsertResult result) throws SQLException {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1: " + batchSize);
+        }
+
+        DaoMetrics.Operation op = DaoMetrics.begin("insertCourses");
+        try (op; Connection conn = DatabaseManager.connect()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement courseStmt = conn.prepareStatement(INSERT_COURSE_SQL);
+                 PreparedStatement prereqStmt = conn.prepareStatement(INSERT_PREREQUISITE_SQL)) {
+                List<Course> chunk = new ArrayList<>(batchSize);
+                for (Course course : courses) {
+                    chunk.add(course);
+                    if (chunk.size() == batchSize) {
+                        insertChunk(chunk, conn, courseStmt, prereqStmt, result);
+                        chunk.clear();
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    insertChunk(chunk, conn, courseStmt, prereqStmt, result);
+                }
+            }
+        } finally {
+            catalogChanged();
+        }
+    }
+
+
+
+
+    /**
+     * Inserts one chunk of courses as a single transaction.
+     * Falls back to inserting course by course under savepoints when the batch fails.
+     */
+    private void insertChunk(List<Course> chunk, Connection conn, PreparedStatement courseStmt,
+                             PreparedStatement prereqStmt, BulkInsertResult result) throws SQLException {
+        try {
+            for (Course course : chunk) {
+                bindCourse(course, courseStmt);
+                courseStmt.addBatch();
+                if (course.getPrerequisites() != null) {
+                    for (String prereq : course.getPrerequisites()) {
+                        prereqStmt.setString(1, course.getCourseId());
+                        prereqStmt.setString(2, prereq);
+                        prereqStmt.addBatch();
+                    }
+                }
+            }
+            courseStmt.executeBatch();
+            prereqStmt.executeBatch();
+            conn.commit();
+            result.addInserted(chunk.size());
+            return;
+        } catch (SQLException e) {
+            courseStmt.clearBatch();
+            prereqStmt.clearBatch();
+            conn.rollback();
+        }
+
+        // Replay the chunk one course at a time to find the rows that fail
+        int inserted = 0;
+        for (Course course : chunk) {
+            Savepoint savepoint = conn.setSavepoint();
+            try {
+                bindCourse(course, courseStmt);
+                courseStmt.executeUpdate();
+                if (course.getPrerequisites() != null) {
                     for (String prereq : course.getPrerequisites()) {
                         prereqStmt.setString(1, course.getCourseId());
                         prereqStmt.setString(2, prereq);
                         prereqStmt.executeUpdate();
                     }
                 }
+                conn.releaseSavepoint(savepoint);
+                inserted++;
+            } catch (SQLException e) {
+                conn.rollback(savepoint);
+                result.addError(course.getCourseId(), e.getMessage());
             }
         }
+        conn.commit();
+        result.addInserted(inserted);
+    }
+
+
+
+
+    /**
+     * Binds the Course table columns of an insert or upsert statement.
+     */
+    private void bindCourse(Course course, PreparedStatement pstmt) throws SQLException {
+        pstmt.setString(1, course.getCourseId());
+        pstmt.setString(2, course.getCourseName());
+        pstmt.setInt(3, course.getCredits());
+        pstmt.setString(4, course.getDepartment());
+        pstmt.setString(5, course.getChecksum());
     }
 
+
+
+
+    /**
+     * Incrementally synchronizes the database with a full catalog, such as a re-imported CSV.
+     * Each course's checksum is compared with the checksum stored when it was last written:
+     * new courses are inserted, changed courses are upserted with their prerequisites replaced,
+     * unchanged courses are skipped, and courses missing from the catalog are removed.
+     * Everything is applied in one transaction, so running the same import twice changes nothing
+     * the second time. A course that fails to write is rolled back alone and reported.
+     * 
+     * Time complexity: O(n + d*m), where n is the number of courses and d the number of changed
+     * courses with m prerequisites each; unchanged courses cost only a checksum comparison.
+     * 
+     * @param courses The complete catalog; if a course ID repeats, the first occurrence wins.
+     * @return Counts of inserted, updated, unchanged and deleted courses, plus per-course errors.
+     * @throws SQLException if the connection fails or the transaction cannot be committed.
+     */
+    public ImportSummary importCoursesIncremental(Iterable<Course> courses) throws SQLException {
+        return importCoursesIncremental(courses, false);
+    }
+
+
+
+
+    /**
+     * Incrementally synchronizes the database with a catalog, as importCoursesIncremental(courses)
+     * does, but can keep the courses that are missing from it. Pass withholdRemovals when the
+     * catalog had records that could not be parsed: a malformed record may be a course that is
+     * still offered, so nothing is deleted until the catalog parses cleanly. This is the rule
+     * CsvChangeDetector applies to watched catalogs.
+     * 
+     * Time complexity: O(n + d*m), as for importCoursesIncremental(courses).
+     * 
+     * @param courses          The catalog; if a course ID repeats, the first occurrence wins.
+     * @param withholdRemovals Keep courses that are missing from the catalog instead of removing them.
+     * @return Counts of inserted, updated, unchanged, deleted and withheld courses, plus per-course errors.
+     * @throws SQLException if the connection fails or the transaction cannot be committed.
+     */
+    public ImportSummary importCoursesIncremental(Iterable<Course> courses, boolean withholdRemovals) throws SQLException {
+        ImportSummary summary = new ImportSummary();
+
+        DaoMetrics.Operation op = DaoMetrics.begin("importCoursesIncremental");
+        try (op; Connection conn = DatabaseManager.connect()) {
+            conn.setAutoCommit(false);
+
+            // Checksums of everything currently stored; NULL for rows written before checksums existed
+            Map<String, String> stored = new HashMap<>();
+            try (PreparedStatement pstmt = conn.prepareStatement("SELECT courseId, checksum FROM Course");
+                 ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    stored.put(rs.getString("courseId"), rs.getString("checksum"));
+                }
+            }
+            DaoMetrics.addRowsRead(stored.size());
+
+            Set<String> seen = new HashSet<>();
+            try (PreparedStatement upsert = conn.prepareStatement(UPSERT_COURSE_SQL)) {
+                for (Course course : courses) {
+                    String courseId = course.getCourseId();
+                    String checksum = course.getChecksum();
+                    if (!seen.add(courseId)) {
+                        // A repeated course ID; the first occurrence has already been written
+                        continue;
+                    }
+                    boolean exists = stored.containsKey(courseId);
+                    if (exists && checksum.equals(stored.get(courseId))) {
+                        summary.unchanged++;
+                        continue;
+                    }
+
+                    if (upsertCourse(course, exists, conn, upsert, summary)) {
+                        stored.put(courseId, checksum);
+                    }
+                }
+            }
+
+            // Courses that are no longer in the catalog
+            for (String courseId : stored.keySet()) {
+                if (seen.contains(courseId)) {
+                    continue;
+                }
+                if (withholdRemovals) {
+                    summary.withheld++;
+                } else {
+                    removeCourse(courseId, conn);
+                    summary.deleted++;
+                }
+            }
+
+            conn.commit();
+        } finally {
+            catalogChanged();
+        }
+        return summary;
+    }
+
+
+
+
+    /**
+     * Applies a known set of catalog changes, such as those CsvChangeDetector finds when a watched
+     * catalog file is edited. Each course is upserted with its prerequisites replaced, unless its
+     * stored checksum already matches, and each removed course is deleted, all in one transaction.
+     * Unlike importCoursesIncremental, the rest of the catalog is not read, and in-memory copies
+     * are refreshed only for the courses that changed.
+     * 
+     * Time complexity: O(k log n + k*m) for k changed courses with m prerequisites each.
+     * 
+     * @param upserts   Courses that are new or changed.
+     * @param removals  IDs of courses to remove.
+     * @return Counts of inserted, updated, unchanged and deleted courses, plus per-course errors.
+     * @throws SQLException if the connection fails or the transaction cannot be committed.
+     */
+    public ImportSummary applyCatalogChanges(Collection<Course> upserts, Collection<String> removals) throws SQLException {
+        ImportSummary summary = new ImportSummary();
+        Set<String> changed = new LinkedHashSet<>();
+
+        DaoMetrics.Operation op = DaoMetrics.begin("applyCatalogChanges");
+        try (op; Connection conn = DatabaseManager.connect()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement select = conn.prepareStatement("SELECT checksum FROM Course WHERE courseId = ?");
+                 PreparedStatement upsert = conn.prepareStatement(UPSERT_COURSE_SQL)) {
+                for (Course course : upserts) {
+                    String stored = null;
+                    boolean exists;
+                    select.setString(1, course.getCourseId());
+                    try (ResultSet rs = select.executeQuery()) {
+                        exists = rs.next();
+                        if (exists) {
+                            stored = rs.getString("checksum");
+                        }
+                    }
+                    if (exists && course.getChecksum().equals(stored)) {
+                        summary.unchanged++;
+                    } else if (upsertCourse(course, exists, conn, upsert, summary)) {
+                        changed.add(course.getCourseId());
+                    }
+                }
+            }
+
+            for (String courseId : removals) {
+                removeCourse(courseId, conn);
+                changed.add(courseId);
+                summary.deleted++;
+            }
+
+            conn.commit();
+        } finally {
+            coursesChanged(changed);
+        }
+        return summary;
+    }
+
+
+
+
+    /**
+     * Upserts a course and replaces its prerequisites under a savepoint, so a course that
+     * fails is rolled back alone and recorded in the summary.
+     * 
+     * @return true if the course was written.
+     */
+    private boolean upsertCourse(Course course, boolean exists, Connection conn, PreparedStatement upsert,
+                                 ImportSummary summary) throws SQLException {
+        Savepoint savepoint = conn.setSavepoint();
+        try {
+            bindCourse(course, upsert);
+            upsert.executeUpdate();
+            deletePrerequisites(course.getCourseId(), conn);
+            insertPrerequisites(course, conn);
+            conn.releaseSavepoint(savepoint);
+            if (exists) {
+                summary.updated++;
+            } else {
+                summary.inserted++;
+            }
+            return true;
+        } catch (SQLException e) {
+            conn.rollback(savepoint);
+            summary.addError(course.getCourseId(), e.getMessage());
+            return false;
+        }
+    }
+
+
+
+
+    /**
+     * Retrieves all courses from the Course table in the SQLite database, ordered by course ID.
+     * The whole catalog is held in memory; use forEachCourse or listCourses(afterCourseId, limit)
+     * for large catalogs.
+     * 
+     * Time complexity: O(n + m), where n is the number of courses and m is the total number of prerequisites for all courses.
+     */
+    public List<Course> getAllCourses() throws SQLException {
+        List<Course> courses = new ArrayList<>();
+        DaoMetrics.Operation op = DaoMetrics.begin("getAllCourses");
+        try (op; Connection conn = DatabaseManager.connect()) {
+            // The courses are kept, so they share one copy of each course ID for the whole load
+            forEachCourse(conn, new SymbolTable(), courses::add);
+        }
+        return courses;
+    }
+
+    
     
     
     
     /**
-     * Retrieves all courses from the Course table in the SQLite database.
-     * For each course, the corresponding prerequisites are retrieved from the Prerequisite table.
+     * Streams every course, ordered by course ID, to the given action.
+     * Courses and their prerequisites are fetched with a single LEFT JOIN, and each Course is
+     * handed to the action as soon as its last prerequisite row has been read, so memory use
+     * does not grow with the catalog size and the first course arrives immediately.
+     * Course and prerequisite IDs are not interned here, since a table of them would grow with
+     * the catalog; callers that keep every course should use getAllCourses instead.
+     * The connection and statement are closed before this method returns.
      * 
      * Time complexity: O(n + m), where n is the number of courses and m is the total number of prerequisites for all courses.
+     * 
+     * @param action Called once for each course, in course ID order.
+     * @throws SQLException if an SQL error occurs during retrieval.
      */
-    public List<Course> getAllCourses() throws SQLException {
+    public void forEachCourse(Consumer<Course> action) throws SQLException {
+        DaoMetrics.Operation op = DaoMetrics.begin("forEachCourse");
+        try (op; Connection conn = DatabaseManager.connect()) {
+            forEachCourse(conn, null, action);
+        }
+    }
+
+    
+    
+    
+    
+    /**
+     * Streams every course on the given connection, so the catalog can be read in the same
+     * transaction as other queries.
+     *
+     * @param symbols The load's table for course and prerequisite IDs, or null when the courses are not kept.
+     */
+    void forEachCourse(Connection conn, SymbolTable symbols, Consumer<Course> action) throws SQLException {
+        String sql = "SELECT c.courseId, c.courseName, c.credits, c.department, p.prerequisiteId"
+                + " FROM Course c LEFT JOIN Prerequisite p ON p.courseId = c.courseId"
+                + " ORDER BY c.courseId, p.rowid";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            readCourses(rs, symbols, action);
+        }
+    }
+
+    
+    
+    
+    
+    /**
+     * Reads the given courses with their prerequisites on the given connection, in chunks of
+     * at most MAX_IN_LIST IDs per query. IDs that do not exist are skipped.
+     * 
+     * Time complexity: O(k log n + m) for k IDs with m prerequisites in total.
+     */
+    void readCoursesById(Collection<String> courseIds, Connection conn, Consumer<Course> action) throws SQLException {
+        List<String> ids = new ArrayList<>(courseIds);
+        SymbolTable symbols = new SymbolTable();
+        for (int from = 0; from < ids.size(); from += MAX_IN_LIST) {
+            List<String> chunk = ids.subList(from, Math.min(ids.size(), from + MAX_IN_LIST));
+            String sql = "SELECT c.courseId, c.courseName, c.credits, c.department, p.prerequisiteId"
+                    + " FROM (SELECT * FROM Course WHERE courseId IN (" + "?, ".repeat(chunk.size() - 1) + "?)) c"
+                    + " LEFT JOIN Prerequisite p ON p.courseId = c.courseId"
+                    + " ORDER BY c.courseId, p.rowid";
+
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    pstmt.setString(i + 1, chunk.get(i));
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    readCourses(rs, symbols, action);
+                }
+            }
+        }
+    }
+
+    
+    
+    
+    
+    /**
+     * Returns one page of courses using keyset pagination: the first limit courses whose
+     * course ID sorts after afterCourseId. Pass the last course ID of a page to fetch the next one.
+     * Unlike OFFSET paging, each page costs the same no matter how deep into the catalog it is.
+     * 
+     * Time complexity: O(log n + k + m), where k is the page size and m the prerequisites on the page.
+     * 
+     * @param afterCourseId The last course ID of the previous page, or null for the first page.
+     * @param limit         Maximum number of courses to return.
+     * @return Up to limit courses in course ID order; an empty list after the last page.
+     * @throws SQLException if an SQL error occurs during retrieval.
+     */
+    public List<Course> listCourses(String afterCourseId, int limit) throws SQLException {
+        String sql = "SELECT c.courseId, c.courseName, c.credits, c.department, p.prerequisiteId"
+                + " FROM (SELECT * FROM Course WHERE courseId > ? ORDER BY courseId LIMIT ?) c"
+                + " LEFT JOIN Prerequisite p ON p.courseId = c.courseId"
+                + " ORDER BY c.courseId, p.rowid";
+        List<Course> courses = new ArrayList<>();
+
+        DaoMetrics.Operation op = DaoMetrics.begin("listCourses");
+        try (op;
+             Connection conn = DatabaseManager.connect();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, afterCourseId == null ? "" : afterCourseId);
+            pstmt.setInt(2, limit);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                readCourses(rs, new SymbolTable(), courses::add);
+            }
+        }
+        return courses;
+    }
+
+    
+    
+    
+    
+    /**
+     * Finds all courses offered by a department, using the (department, credits) index.
+     * 
+     * Time complexity: O(log n + k) for k matching courses.
+     * 
+     * @param department The exact department name, e.g. "Computer Science".
+     * @return The department's courses in course ID order.
+     * @throws SQLException if an SQL error occurs during retrieval.
+     */
+    public List<Course> findByDepartment(String department) throws SQLException {
+        DaoMetrics.Operation op = DaoMetrics.begin("findByDepartment");
+        try (op) {
+            return findCoursesWhere(BY_DEPARTMENT, department);
+        }
+    }
+
+    
+    
+    
+    
+    /**
+     * Finds all courses worth between minCredits and maxCredits (inclusive), using the credits index.
+     * 
+     * Time complexity: O(log n + k) for k matching courses.
+     * 
+     * @return The matching courses in course ID order.
+     * @throws SQLException if an SQL error occurs during retrieval.
+     */
+    public List<Course> findByCreditRange(int minCredits, int maxCredits) throws SQLException {
+        DaoMetrics.Operation op = DaoMetrics.begin("findByCreditRange");
+        try (op) {
+            return findCoursesWhere(BY_CREDIT_RANGE, minCredits, maxCredits);
+        }
+    }
+
+    
+    
+    
+    
+    /**
+     * Finds a department's courses worth between minCredits and maxCredits (inclusive),
+     * using a single range scan of the (department, credits) index.
+     * 
+     * Time complexity: O(log n + k) for k matching courses.
+     * 
+     * @return The matching courses in course ID order.
+     * @throws SQLException if an SQL error occurs during retrieval.
+     */
+    public List<Course> findByDepartmentAndCredits(String department, int minCredits, int maxCredits) throws SQLException {
+        DaoMetrics.Operation op = DaoMetrics.begin("findByDepartmentAndCredits");
+        try (op) {
+            return findCoursesWhere(BY_DEPARTMENT_AND_CREDITS, department, minCredits, maxCredits);
+        }
+    }
+
+    
+    
+    
+    
+    /**
+     * Runs the catalog join for the courses matching a filter on the Course table.
+     * The filter is applied in a subquery so it can use the Course indexes before the join.
+     * 
+     * @param where  An SQL condition on Course columns with ? placeholders; never user input.
+     * @param params Values bound to the placeholders, in order.
+     */
+    private List<Course> findCoursesWhere(String where, Object... params) throws SQLException {
+        String sql = coursesWhereSql(where);
         List<Course> courses = new ArrayList<>();
-        String sql = "SELECT * FROM Course";
 
         try (Connection conn = DatabaseManager.connect();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            ResultSet rs = pstmt.executeQuery();
+            for (int i = 0; i < params.length; i++) {
+                pstmt.setObject(i + 1, params[i]);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                readCourses(rs, new SymbolTable(), courses::add);
+            }
+        }
+        return courses;
+    }
 
-            while (rs.next()) {
-                String courseId = rs.getString("courseId");
+    
+    
+    
+    
+    /**
+     * @return The query findCoursesWhere runs for a filter; the query plan tests explain it.
+     */
+    static String coursesWhereSql(String where) {
+        return "SELECT c.courseId, c.courseName, c.credits, c.department, p.prerequisiteId"
+                + " FROM (SELECT * FROM Course WHERE " + where + ") c"
+                + " LEFT JOIN Prerequisite p ON p.courseId = c.courseId"
+                + " ORDER BY c.courseId, p.rowid";
+    }
+
+    
+    
+    
+    
+    /**
+     * Assembles Course objects from rows of (courseId, courseName, credits, department, prerequisiteId)
+     * ordered by course ID, passing each course on once all of its rows have been read.
+     * When the caller keeps the courses, course IDs, departments and prerequisite IDs go through
+     * the load's SymbolTable, so the courses share one copy of each repeated string rather than
+     * one per row. When it does not (symbols is null), only departments are interned: there are
+     * few of them, whereas a table of IDs would grow with the number of courses read.
+     * 
+     * Time complexity: O(r), where r is the number of rows in the result set.
+     */
+    private void readCourses(ResultSet rs, SymbolTable symbols, Consumer<Course> action) throws SQLException {
+        SymbolTable departments = symbols != null ? symbols : new SymbolTable();
+        Course current = null;
+        long rows = 0;
+        while (rs.next()) {
+            rows++;
+            String courseId = rs.getString("courseId");
+
+            // Start a new Course whenever the course ID changes
+            if (current == null || !current.getCourseId().equals(courseId)) {
+                if (current != null) {
+                    action.accept(current);
+                }
                 String courseName = rs.getString("courseName");
                 int credits = rs.getInt("credits");
-                String department = rs.getString("department");
+                String department = departments.intern(rs.getString("department"));
+                current = new Course(intern(symbols, courseId), courseName, credits, department, new ArrayList<>());
+            }
 
-                // Retrieve prerequisites for the course
-                List<String> prerequisites = getPrerequisitesByCourseId(courseId, conn);
+            // A NULL prerequisiteId means the course has no prerequisites
+            String prerequisiteId = rs.getString("prerequisiteId");
+            if (prerequisiteId != null) {
+                current.getPrerequisites().add(intern(symbols, prerequisiteId));
+            }
+        }
+        if (current != null) {
+            action.accept(current);
+        }
+        DaoMetrics.addRowsRead(rows);
+    }
 
-                // Create Course object and add to the list
-                Course course = new Course(courseId, courseName, credits, department, prerequisites);
-                courses.add(course);
+    private static String intern(SymbolTable symbols, String value) {
+        return symbols == null ? value : symbols.intern(value);
+    }
+
+    
+    
+    
+    
+    /**
+     * Searches course names and departments with the CourseSearch full-text index.
+     * Every word in the query must match the start of a word in the course name or department,
+     * so "operat" finds "Operating Systems" and "computer algo" finds
+     * "Introduction to Algorithms" in Computer Science. Results are ranked by relevance (BM25).
+     * 
+     * Time complexity: O(log n + k) index lookups for k matching courses, independent of catalog size.
+     * 
+     * @param query Free text typed by the user.
+     * @param limit Maximum number of courses to return.
+     * @return Matching courses, best match first; empty if the query has no searchable words.
+     * @throws SQLException if an SQL error occurs during the search.
+     */
+    public List<Course> searchCourses(String query, int limit) throws SQLException {
+        String match = toMatchExpression(query);
+        List<Course> courses = new ArrayList<>();
+        if (match.isEmpty()) {
+            return courses;
+        }
+
+        String sql = "SELECT c.courseId, c.courseName, c.credits, c.department, p.prerequisiteId"
+                + " FROM (SELECT rowid AS courseRowid, rank FROM CourseSearch"
+                + "       WHERE CourseSearch MATCH ? ORDER BY rank LIMIT ?) s"
+                + " JOIN Course c ON c.rowid = s.courseRowid"
+                + " LEFT JOIN Prerequisite p ON p.courseId = c.courseId"
+                + " ORDER BY s.rank, c.courseId, p.rowid";
+
+        DaoMetrics.Operation op = DaoMetrics.begin("searchCourses");
+        try (op;
+             Connection conn = DatabaseManager.connect();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, match);
+            pstmt.setInt(2, limit);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                readCourses(rs, new SymbolTable(), courses::add);
             }
         }
         return courses;
@@ -84,14 +775,129 @@ public class CourseDAO {
     
     
     
+    /**
+     * Turns free text into an FTS5 query: each word becomes a quoted prefix term, and all
+     * terms must match. Quoting keeps FTS5 operators and punctuation typed by the user literal.
+     */
+    private static String toMatchExpression(String query) {
+        StringBuilder match = new StringBuilder();
+        for (String word : query.split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                if (match.length() > 0) {
+                    match.append(' ');
+                }
+                match.append('"').append(word).append("\"*");
+            }
+        }
+        return match.toString();
+    }
+
+    
+    
+    
+    
+    /**
+     * Rebuilds the full-text search index from the Course table in one pass.
+     * The index is kept up to date automatically; rebuilding is only needed after the
+     * Course table was changed outside this program, or after restoring a copy of the
+     * database in which row IDs may have been renumbered.
+     * 
+     * Time complexity: O(n) for n courses.
+     */
+    public void rebuildSearchIndex() throws SQLException {
+        DaoMetrics.Operation op = DaoMetrics.begin("rebuildSearchIndex");
+        try (op;
+             Connection conn = DatabaseManager.connect();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "INSERT INTO CourseSearch(CourseSearch) VALUES ('rebuild')")) {
+            pstmt.executeUpdate();
+        }
+    }
+
+    
+    
+    
+    
+    /**
+     * Resolves the full prerequisite chain of a course in a single recursive query.
+     * Every course that must be taken before courseId is returned with its depth: 1 for a direct
+     * prerequisite, 2 for a prerequisite of a prerequisite, and so on. A course reachable along
+     * several paths (a "diamond") is listed once, at its shortest depth.
+     * 
+     * The query is safe on cyclic data: rows are de-duplicated per (course, depth) and the depth is
+     * capped at the number of courses that have prerequisites, which no shortest chain can exceed.
+     * If the course is part of a cycle it is not listed as its own prerequisite.
+     * 
+     * Time complexity: O(d * r) rows for r reachable prerequisites and a longest chain of d; on
+     * cyclic data d is the depth cap.
+     * 
+     * @param courseId The ID of the course.
+     * @return Prerequisite course IDs mapped to their depth, ordered by depth and then course ID.
+     * @throws SQLException if an SQL error occurs during retrieval.
+     */
+    public Map<String, Integer> getPrerequisiteClosure(String courseId) throws SQLException {
+        String sql = "WITH RECURSIVE closure(prerequisiteId, depth) AS ("
+                + " SELECT prerequisiteId, 1 FROM Prerequisite WHERE courseId = ?"
+                + " UNION"
+                + " SELECT p.prerequisiteId, c.depth + 1"
+                + " FROM closure c JOIN Prerequisite p ON p.courseId = c.prerequisiteId"
+                + " WHERE c.depth < (SELECT COUNT(DISTINCT courseId) FROM Prerequisite)"
+                + ")"
+                + " SELECT prerequisiteId, MIN(depth) AS depth FROM closure"
+                + " WHERE prerequisiteId <> ?"
+                + " GROUP BY prerequisiteId"
+                + " ORDER BY depth, prerequisiteId";
+        Map<String, Integer> closure = new LinkedHashMap<>();
+
+        DaoMetrics.Operation op = DaoMetrics.begin("getPrerequisiteClosure");
+        try (op;
+             Connection conn = DatabaseManager.connect();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, courseId);
+            pstmt.setString(2, courseId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    closure.put(rs.getString("prerequisiteId"), rs.getInt("depth"));
+                }
+            }
+            DaoMetrics.addRowsRead(closure.size());
+        }
+        return closure;
+    }
+
+    
+    
+    
+    
+    /**
+     * Retrieves the list of prerequisites for a specific course, in the order they were added.
+     * 
+     * Time complexity: O(m), where m is the number of prerequisites for the course.
+     * 
+     * @param courseId The ID of the course.
+     * @return The prerequisite course IDs; empty if the course has none or does not exist.
+     * @throws SQLException if an SQL error occurs during retrieval.
+     */
+    public List<String> getPrerequisites(String courseId) throws SQLException {
+        DaoMetrics.Operation op = DaoMetrics.begin("getPrerequisites");
+        try (op; Connection conn = DatabaseManager.connect()) {
+            return getPrerequisitesByCourseId(courseId, conn);
+        }
+    }
+
+    
+    
+    
+    
     /**
      * Retrieves the list of prerequisites for a specific course from the Prerequisite table.
+     * Rows are returned in insertion (rowid) order, matching the order used by getAllCourses.
      * 
      * Time complexity: O(m), where m is the number of prerequisites for the course.
      */
     private List<String> getPrerequisitesByCourseId(String courseId, Connection conn) throws SQLException {
         List<String> prerequisites = new ArrayList<>();
-        String prereqSql = "SELECT prerequisiteId FROM Prerequisite WHERE courseId = ?";
+        String prereqSql = "SELECT prerequisiteId FROM Prerequisite WHERE courseId = ? ORDER BY rowid";
 
         try (PreparedStatement pstmt = conn.prepareStatement(prereqSql)) {
             pstmt.setString(1, courseId);
@@ -102,6 +908,7 @@ public class CourseDAO {
                 prerequisites.add(rs.getString("prerequisiteId"));
             }
         }
+        DaoMetrics.addRowsRead(prerequisites.size());
         return prerequisites;
     }
 
@@ -123,12 +930,15 @@ public class CourseDAO {
         String sql = "SELECT * FROM Course WHERE courseId = ?";
         Course course = null;
 
-        try (Connection conn = DatabaseManager.connect();
+        DaoMetrics.Operation op = DaoMetrics.begin("findCourseById");
+        try (op;
+             Connection conn = DatabaseManager.connect();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, courseId);
             ResultSet rs = pstmt.executeQuery();
 
             if (rs.next()) {
+                DaoMetrics.addRowsRead(1);
                 String courseName = rs.getString("courseName");
                 int credits = rs.getInt("credits");
                 String department = rs.getString("department");
@@ -147,26 +957,44 @@ public class CourseDAO {
     
     /**
      * Updates an existing course in the Course table and its prerequisites in the Prerequisite table.
-     * Deletes old prerequisites and inserts the new ones.
+     * Deletes old prerequisites and inserts the new ones, all in a single transaction.
      * 
      * Time complexity: O(1) for updating the course and O(m) for updating prerequisites, where m is the number of prerequisites.
      */
     public void updateCourse(Course course) throws SQLException {
-        String sql = "UPDATE Course SET courseName = ?, credits = ?, department = ? WHERE courseId = ?";
+        DaoMetrics.Operation op = DaoMetrics.begin("updateCourse");
+        try (op; Connection conn = DatabaseManager.connect()) {
+            // One transaction, so readers never see the course without its prerequisites
+            conn.setAutoCommit(false);
+            updateCourse(course, conn);
+            conn.commit();
+        } finally {
+            courseChanged(course.getCourseId());
+        }
+    }
 
-        try (Connection conn = DatabaseManager.connect();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    
+    
+    
+    /**
+     * Updates a course and replaces its prerequisites on the given connection without committing.
+     */
+    void updateCourse(Course course, Connection conn) throws SQLException {
+        String sql = "UPDATE Course SET courseName = ?, credits = ?, department = ?, checksum = ? WHERE courseId = ?";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
             // Update course details
             pstmt.setString(1, course.getCourseName());
             pstmt.setInt(2, course.getCredits());
             pstmt.setString(3, course.getDepartment());
-            pstmt.setString(4, course.getCourseId());
+            pstmt.setString(4, course.getChecksum());
+            pstmt.setString(5, course.getCourseId());
             pstmt.executeUpdate();
-
-            // Update prerequisites
-            deletePrerequisites(course.getCourseId(), conn); // Delete old prerequisites
-            insertPrerequisites(course, conn);  // Insert new prerequisites
         }
+
+        // Update prerequisites
+        deletePrerequisites(course.getCourseId(), conn); // Delete old prerequisites
+        insertPrerequisites(course, conn);  // Insert new prerequisites
     }
 
     
@@ -194,9 +1022,8 @@ public class CourseDAO {
      * Time complexity: O(m), where m is the number of prerequisites being inserted.
      */
     private void insertPrerequisites(Course course, Connection conn) throws SQLException {
-        String prereqSql = "INSERT INTO Prerequisite(courseId, prerequisiteId) VALUES(?, ?)";
         if (course.getPrerequisites() != null && !course.getPrerequisites().isEmpty()) {
-            try (PreparedStatement pstmt = conn.prepareStatement(prereqSql)) {
+            try (PreparedStatement pstmt = conn.prepareStatement(INSERT_PREREQUISITE_SQL)) {
                 for (String prereq : course.getPrerequisites()) {
                     pstmt.setString(1, course.getCourseId());
                     pstmt.setString(2, prereq);
@@ -210,28 +1037,39 @@ public class CourseDAO {
     
     
     /**
-     * Removes a course and its associated prerequisites from the database.
+     * Removes a course and its associated prerequisites from the database in a single transaction.
      * 
      * Time complexity: O(1) for removing the course and O(m) for deleting prerequisites, where m is the number of prerequisites.
      */
     public void removeCourse(String courseId) throws SQLException {
+        DaoMetrics.Operation op = DaoMetrics.begin("removeCourse");
+        try (op; Connection conn = DatabaseManager.connect()) {
+            conn.setAutoCommit(false);
+            removeCourse(courseId, conn);
+            conn.commit();
+        } finally {
+            courseChanged(courseId);
+        }
+    }
+
+
+
+
+    /**
+     * Removes a course and its prerequisites on the given connection without committing.
+     */
+    void removeCourse(String courseId, Connection conn) throws SQLException {
         String sqlCourse = "DELETE FROM Course WHERE courseId = ?";
-        String sqlPrereq = "DELETE FROM Prerequisite WHERE courseId = ?";
-
-        try (Connection conn = DatabaseManager.connect()) {
-            // First, delete associated prerequisites
-            try (PreparedStatement pstmt = conn.prepareStatement(sqlPrereq)) {
-                pstmt.setString(1, courseId);
-                pstmt.executeUpdate();
-            }
-
-            // Then, delete the course itself
-            try (PreparedStatement pstmt = conn.prepareStatement(sqlCourse)) {
-	            pstmt.setString(1, courseId);
-	            pstmt.executeUpdate();
-	        }
-	    }
-	}
+
+        // First, delete associated prerequisites
+        deletePrerequisites(courseId, conn);
+
+        // Then, delete the course itself
+        try (PreparedStatement pstmt = conn.prepareStatement(sqlCourse)) {
+            pstmt.setString(1, courseId);
+            pstmt.executeUpdate();
+        }
+    }
 
 
     
@@ -0,0 +1,201 @@
+package main;
+
+import java.lang.reflect.Method;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread-safe service for serving many advising lookups at once on top of CourseDAO.
+ * Read queries run concurrently on a configurable reader executor; with the database
+ * in WAL mode (see SqliteProfile) SQLite lets every pooled connection read at the same
+ * time, even while a write is in progress. Writes are funneled through a single writer
+ * thread, so they never compete with each other for SQLite's one write lock.
+ *
+ * The number of reads that actually hit the database at once is bounded by the size of
+ * the connection pool (-Dadvising.pool.size); extra reads wait for a free connection.
+ */
+public class CourseQueryService implements AutoCloseable {
+
+    private final CourseDAO courseDAO;
+    private final ExecutorService readers;
+    private final ExecutorService writer;
+
+    /**
+     * Creates a query service.
+     *
+     * @param courseDAO       The DAO used for all queries; it must be safe to share between threads.
+     * @param readerThreads   Number of platform reader threads; ignored when virtual threads are used.
+     * @param virtualThreads  Run each read on its own virtual thread when the JVM supports them.
+     */
+    public CourseQueryService(CourseDAO courseDAO, int readerThreads, boolean virtualThreads) {
+        this.courseDAO = courseDAO;
+        this.readers = newExecutor("course-reader", readerThreads, virtualThreads);
+        this.writer = Executors.newSingleThreadExecutor(daemonThreads("course-writer"));
+    }
+
+    /**
+     * Looks up a course on a reader thread.
+     *
+     * @return A future holding the course, or null if it does not exist.
+     */
+    public Future<Course> findCourseById(String courseId) {
+        return readers.submit(() -> courseDAO.findCourseById(courseId));
+    }
+
+    /**
+     * Fetches one keyset page of courses on a reader thread.
+     *
+     * @see CourseDAO#listCourses(String, int)
+     */
+    public Future<List<Course>> listCourses(String afterCourseId, int limit) {
+        return readers.submit(() -> courseDAO.listCourses(afterCourseId, limit));
+    }
+
+    /**
+     * Fetches the prerequisites of a course on a reader thread.
+     */
+    public Future<List<String>> getPrerequisites(String courseId) {
+        return readers.submit(() -> courseDAO.getPrerequisites(courseId));
+    }
+
+    /**
+     * Looks up many courses in parallel and waits for all of them.
+     * Useful for showing every course in a student's plan at once.
+     *
+     * Time complexity: O(k) lookups spread across the reader threads, for k course IDs.
+     *
+     * @param courseIds The course IDs to look up.
+     * @return The courses found, keyed by course ID in request order; missing courses are left out.
+     * @throws SQLException if any lookup fails.
+     * @throws InterruptedException if the calling thread is interrupted while waiting.
+     */
+    public Map<String, Course> findCoursesById(Collection<String> courseIds) throws SQLException, InterruptedException {
+        List<Future<Course>> futures = new ArrayList<>(courseIds.size());
+        for (String courseId : courseIds) {
+            futures.add(findCourseById(courseId));
+        }
+        Map<String, Course> courses = new LinkedHashMap<>();
+        for (Future<Course> future : futures) {
+            Course course = await(future);
+            if (course != null) {
+                courses.put(course.getCourseId(), course);
+            }
+        }
+        return courses;
+    }
+
+    /**
+     * Inserts a course on the writer thread.
+     */
+    public Future<Void> insertCourse(Course course) {
+        return write(() -> courseDAO.insertCourse(course));
+    }
+
+    /**
+     * Updates a course on the writer thread.
+     */
+    public Future<Void> updateCourse(Course course) {
+        return write(() -> courseDAO.updateCourse(course));
+    }
+
+    /**
+     * Removes a course on the writer thread.
+     */
+    public Future<Void> removeCourse(String courseId) {
+        return write(() -> courseDAO.removeCourse(courseId));
+    }
+
+    /**
+     * A database write that returns nothing.
+     */
+    private interface Write {
+        void run() throws SQLException;
+    }
+
+    private Future<Void> write(Write write) {
+        return writer.submit((Callable<Void>) () -> {
+            write.run();
+            return null;
+        });
+    }
+
+    /**
+     * Waits for a future and unwraps an SQLException thrown by the query.
+     */
+    static <T> T await(Future<T> future) throws SQLException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new SQLException(cause);
+        }
+    }
+
+    /**
+     * Stops accepting work, lets queued reads and writes finish, and waits for them.
+     * If the calling thread is interrupted, it stops waiting and its interrupt status is kept.
+     */
+    @Override
+    public void close() {
+        readers.shutdown();
+        writer.shutdown();
+        try {
+            readers.awaitTermination(30, TimeUnit.SECONDS);
+            writer.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Creates an executor for database work. Virtual threads are used when requested and
+     * available (Java 21 or later); otherwise a fixed pool of daemon platform threads is used.
+     * The project targets Java 17, so virtual threads are looked up reflectively.
+     *
+     * @param name            Prefix for thread names.
+     * @param threads         Number of platform threads.
+     * @param virtualThreads  Prefer one virtual thread per task.
+     */
+    static ExecutorService newExecutor(String name, int threads, boolean virtualThreads) {
+        if (virtualThreads) {
+            try {
+                Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                return (ExecutorService) factory.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                System.out.println("Virtual threads are not available on this JVM; using "
+                        + threads + " platform threads.");
+            }
+        }
+        return Executors.newFixedThreadPool(threads, daemonThreads(name));
+    }
+
+    /**
+     * Thread factory for named daemon threads, so idle executors never keep the program alive.
+     */
+    static ThreadFactory daemonThreads(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
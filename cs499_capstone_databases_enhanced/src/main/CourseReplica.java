@@ -0,0 +1,137 @@
+package main;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory read replica of the course catalog, kept in sync by tailing the CourseChangeLog.
+ * Intended as one replica per worker: reads are served lock-free from an immutable
+ * CatalogSnapshot, and catchUp() (called directly or by the tailing thread) applies only the
+ * courses that changed since the replica's position.
+ *
+ * Save getSnapshot() and getPosition() to resume a replica after a restart with
+ * CourseChangeLog.subscribe(state, position).
+ */
+public class CourseReplica implements AutoCloseable {
+
+    // Log entries read per query while catching up
+    private static final int BATCH_SIZE = 1000;
+
+    private final CourseChangeLog changeLog;
+    private final AtomicReference<CatalogSnapshot> snapshot;
+    private volatile long position;
+    private volatile Thread tailer;
+
+    CourseReplica(CourseChangeLog changeLog, CatalogSnapshot state, long position) {
+        this.changeLog = changeLog;
+        this.snapshot = new AtomicReference<>(state);
+        this.position = position;
+    }
+
+    /**
+     * Applies every change logged since the replica's position. Each batch is published as a new
+     * snapshot, so readers never see a partly applied batch. If the log was truncated past the
+     * position, the whole catalog is reloaded instead.
+     *
+     * Time complexity: O(n log n) per batch for a catalog of n courses, plus the reads for the changes.
+     *
+     * @return The number of courses changed or removed.
+     * @throws SQLException if the log cannot be read; the replica keeps its previous state.
+     */
+    public synchronized int catchUp() throws SQLException {
+        int applied = 0;
+        while (true) {
+            CourseChangeLog.ChangeBatch batch = changeLog.readChanges(position, BATCH_SIZE);
+            if (batch.isFullResync()) {
+                snapshot.set(CatalogSnapshot.of(batch.getUpserts()));
+                applied += batch.getUpserts().size();
+            } else if (!batch.isEmpty()) {
+                snapshot.set(snapshot.get().withChanges(batch.getUpserts(), batch.getRemovals()));
+                applied += batch.getUpserts().size() + batch.getRemovals().size();
+            }
+            boolean caughtUp = batch.getPosition() == position || batch.isFullResync();
+            position = batch.getPosition();
+            if (caughtUp) {
+                return applied;
+            }
+        }
+    }
+
+    /**
+     * Starts a daemon thread that calls catchUp() every pollIntervalMillis. Each poll is a single
+     * indexed query on the log when nothing has changed.
+     */
+    public synchronized void startTailing(long pollIntervalMillis) {
+        if (tailer != null) {
+            return;
+        }
+        tailer = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    Thread.sleep(pollIntervalMillis);
+                    catchUp();
+                } catch (InterruptedException e) {
+                    return;
+                } catch (SQLException e) {
+                    // Try again on the next poll; the replica keeps serving its current snapshot
+                    System.out.println("Error updating course replica: " + e.getMessage());
+                }
+            }
+        }, "course-replica-tailer");
+        tailer.setDaemon(true);
+        tailer.start();
+    }
+
+    /**
+     * Time complexity: O(1).
+     *
+     * @return The course as of the replica's position, or null if it does not exist.
+     */
+    public Course findCourseById(String courseId) {
+        return snapshot.get().get(courseId);
+    }
+
+    /**
+     * @return All courses in course ID order, as of the replica's position.
+     */
+    public List<Course> getAllCourses() {
+        return snapshot.get().getCourses();
+    }
+
+    /**
+     * @return The replica's current, immutable copy of the catalog.
+     */
+    public CatalogSnapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * @return The sequence number of the last change applied.
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * Stops tailing and unsubscribes, so the replica no longer holds back log compaction.
+     * If the calling thread is interrupted, it stops waiting for the tailer and its interrupt status is kept.
+     */
+    @Override
+    public void close() {
+        Thread thread;
+        synchronized (this) {
+            thread = tailer;
+            tailer = null;
+        }
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        changeLog.unsubscribe(this);
+    }
+}
@@ -0,0 +1,169 @@
+package main;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the records of a CSV catalog that changed since the previous scan of the same file.
+ * A 64-bit hash of every record's fields is kept per course ID (the first field). On a rescan,
+ * a record whose hash matches is skipped without being parsed into an object, so only new and
+ * changed records are parsed; IDs that are no longer in the file are reported as removed.
+ * The first scan reports every record as new.
+ *
+ * If any record fails to parse, no removals are reported for that scan: a malformed record
+ * may be a course that is still in the catalog, and it keeps its previous version until the
+ * file is fixed.
+ *
+ * If a course ID repeats, the first occurrence wins and the later ones are ignored, as they are
+ * when the catalog is loaded in full.
+ */
+public class CsvChangeDetector<T> {
+
+    /**
+     * The differences found by one scan.
+     */
+    public static class Changes<T> {
+        private final List<T> upserts;
+        private final List<String> removals;
+        private final List<CsvReader.CsvException> errors;
+        private final int unchanged;
+
+        Changes(List<T> upserts, List<String> removals, List<CsvReader.CsvException> errors, int unchanged) {
+            this.upserts = upserts;
+            this.removals = removals;
+            this.errors = errors;
+            this.unchanged = unchanged;
+        }
+
+        /**
+         * @return The new and changed records, in file order.
+         */
+        public List<T> getUpserts() {
+            return Collections.unmodifiableList(upserts);
+        }
+
+        /**
+         * @return The IDs of records that are no longer in the file.
+         */
+        public List<String> getRemovals() {
+            return Collections.unmodifiableList(removals);
+        }
+
+        /**
+         * @return The records that could not be parsed, in file order.
+         */
+        public List<CsvReader.CsvException> getErrors() {
+            return Collections.unmodifiableList(errors);
+        }
+
+        public int getUnchanged() {
+            return unchanged;
+        }
+
+        public boolean isEmpty() {
+            return upserts.isEmpty() && removals.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return upserts.size() + " added or changed, " + removals.size() + " removed, "
+                    + unchanged + " unchanged, " + errors.size() + " invalid";
+        }
+    }
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final char FIELD_SEPARATOR = 0x1F;
+
+    // Hash of each record as of the last scan, by course ID
+    private Map<String, Long> hashes = new HashMap<>();
+
+    /**
+     * Creates a detector that has not scanned yet; its first scan reports every record as added.
+     */
+    public CsvChangeDetector() {
+    }
+
+    /**
+     * Reads the whole file and returns what changed since the previous scan. The reader is closed.
+     *
+     * Time complexity: O(c + k*p) for c characters and k changed records costing p each to parse.
+     *
+     * @param in      The CSV text.
+     * @param parser  Turns a record into an object, or null to skip it.
+     * @throws IOException if the file cannot be read; the previous state is kept.
+     */
+    public synchronized Changes<T> scan(Reader in, ParallelCsvLoader.RecordParser<T> parser) throws IOException {
+        Map<String, Long> current = new HashMap<>(hashes.size() * 4 / 3 + 16);
+        Map<String, T> upserts = new LinkedHashMap<>();
+        List<CsvReader.CsvException> errors = new ArrayList<>();
+        int unchanged = 0;
+
+        try (CsvReader csv = new CsvReader(in)) {
+            while (true) {
+                try {
+                    if (!csv.next()) {
+                        break;
+                    }
+                    if (csv.isBlankLine()) {
+                        continue;
+                    }
+                    String id = csv.getString(0);
+                    if (current.containsKey(id)) {
+                        // A repeated course ID; the first occurrence has already been taken
+                        continue;
+                    }
+                    long hash = hash(csv);
+                    Long previous = hashes.get(id);
+                    if (previous != null && previous == hash) {
+                        // Same as last time; no need to parse it
+                        current.put(id, hash);
+                        unchanged++;
+                        continue;
+                    }
+                    T record = parser.parse(csv);
+                    if (record != null) {
+                        upserts.put(id, record);
+                        current.put(id, hash);
+                    }
+                } catch (CsvReader.CsvException e) {
+                    errors.add(e);
+                }
+            }
+        }
+
+        List<String> removals = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : hashes.entrySet()) {
+            if (!current.containsKey(entry.getKey())) {
+                if (errors.isEmpty()) {
+                    removals.add(entry.getKey());
+                } else {
+                    current.put(entry.getKey(), entry.getValue());  // Keep until the file parses cleanly
+                }
+            }
+        }
+        hashes = current;
+        return new Changes<>(new ArrayList<>(upserts.values()), removals, errors, unchanged);
+    }
+
+    /**
+     * FNV-1a hash of the current record's fields, computed in place without copying them.
+     */
+    private static long hash(CsvReader csv) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < csv.getFieldCount(); i++) {
+            CharSequence field = csv.field(i);
+            for (int j = 0; j < field.length(); j++) {
+                hash = (hash ^ field.charAt(j)) * FNV_PRIME;
+            }
+            hash = (hash ^ FIELD_SEPARATOR) * FNV_PRIME;
+        }
+        return hash;
+    }
+}
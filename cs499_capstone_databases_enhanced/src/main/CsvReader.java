@@ -0,0 +1,400 @@
+package main;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Streaming CSV reader following RFC 4180.
+ * Fields may be enclosed in double quotes, in which case they can contain commas, line breaks
+ * and doubled quotes (""). Records may end with CRLF, LF or CR, and a UTF-8 byte order mark at
+ * the start of the input is skipped.
+ *
+ * The reader is built to allocate nothing per record once it has warmed up: input is read into
+ * a fixed buffer, the fields of the current record are copied into one reusable character array,
+ * and field(i) returns a reusable CharSequence view of that array. Views and their contents are
+ * only valid until the next call to next(); call toString() to keep a value.
+ *
+ * Malformed records raise a CsvException that carries the line number. The rest of the bad line
+ * is skipped, so callers can report the error and keep reading.
+ *
+ * Usage:
+ *     try (CsvReader csv = new CsvReader(reader)) {
+ *         while (csv.next()) {
+ *             CharSequence id = csv.field(0);
+ *             ...
+ *         }
+ *     }
+ */
+public class CsvReader implements Closeable {
+
+    /**
+     * A malformed CSV record, with the line on which the problem was found.
+     */
+    public static class CsvException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        private final String reason;
+        private final long lineNumber;
+
+        public CsvException(String reason, long lineNumber) {
+            super("Line " + lineNumber + ": " + reason);
+            this.reason = reason;
+            this.lineNumber = lineNumber;
+        }
+
+        /**
+         * @return The problem with the record, without the line number.
+         */
+        public String getReason() {
+            return reason;
+        }
+
+        public long getLineNumber() {
+            return lineNumber;
+        }
+    }
+
+    /**
+     * Reusable view of one field of the current record.
+     */
+    private final class Field implements CharSequence {
+        int start;
+        int end;
+
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= end - start) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return record[start + index];
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            if (from < 0 || from > to || to > end - start) {
+                throw new IndexOutOfBoundsException("[" + from + ", " + to + ") of " + (end - start));
+            }
+            return new String(record, start + from, to - from);
+        }
+
+        @Override
+        public String toString() {
+            return new String(record, start, end - start);
+        }
+    }
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Reader in;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private boolean endOfInput;
+
+    // Unescaped characters of the current record, and a view per field
+    private char[] record = new char[256];
+    private int recordLength;
+    private Field[] fields = new Field[16];
+    private int fieldCount;
+
+    private long line = 1;        // Line the reader is currently on
+    private long recordLine;      // Line on which the current record starts
+    private boolean started;
+
+    /**
+     * @param in The CSV text. It is read in large blocks, so it does not need to be buffered.
+     */
+    public CsvReader(Reader in) {
+        this.in = in;
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = new Field();
+        }
+    }
+
+    /**
+     * Advances to the next record.
+     *
+     * Time complexity: O(c) for a record of c characters.
+     *
+     * @return false once the input is exhausted.
+     * @throws CsvException if the record is malformed; the reader is then positioned on the next line.
+     * @throws IOException if the input cannot be read.
+     */
+    public boolean next() throws IOException {
+        if (!started) {
+            started = true;
+            if (fill() && buffer[position] == '\uFEFF') {
+                position++;  // Byte order mark
+            }
+        }
+        fieldCount = 0;
+        recordLength = 0;
+        recordLine = line;
+        if (position >= limit && !fill()) {
+            return false;
+        }
+
+        while (true) {
+            int fieldStart = recordLength;
+            int c = peek();
+            if (c == '"') {
+                position++;
+                readQuoted();
+                c = read();
+                if (c != ',' && c != '\n' && c != '\r' && c != -1) {
+                    long errorLine = line;
+                    skipLine(c);
+                    throw new CsvException("unexpected character '" + (char) c + "' after closing quote", errorLine);
+                }
+            } else {
+                c = readUnquoted();
+            }
+            addField(fieldStart, recordLength);
+
+            if (c == ',') {
+                continue;
+            }
+            endLine(c);
+            return true;
+        }
+    }
+
+    /**
+     * Copies an unquoted field into the record, scanning the buffer in bulk.
+     *
+     * @return The character that ended the field: ',', '\n', '\r' or -1 at the end of input.
+     */
+    private int readUnquoted() throws IOException {
+        while (true) {
+            if (position >= limit && !fill()) {
+                return -1;
+            }
+            int start = position;
+            while (position < limit) {
+                char c = buffer[position];
+                if (c == ',' || c == '\n' || c == '\r' || c == '"') {
+                    break;
+                }
+                position++;
+            }
+            append(buffer, start, position - start);
+            if (position < limit) {
+                char c = buffer[position++];
+                if (c == '"') {
+                    long errorLine = line;
+                    skipLine(c);
+                    throw new CsvException("quote inside an unquoted field", errorLine);
+                }
+                return c;
+            }
+        }
+    }
+
+    /**
+     * Copies a quoted field into the record, after its opening quote, up to and including its closing quote.
+     */
+    private void readQuoted() throws IOException {
+        char previous = 0;
+        while (true) {
+            if (position >= limit && !fill()) {
+                throw new CsvException("quoted field is not closed", recordLine);
+            }
+            int start = position;
+            while (position < limit && buffer[position] != '"') {
+                char c = buffer[position];
+                if (c == '\r' || (c == '\n' && previous != '\r')) {
+                    line++;  // Line break inside the field; CRLF counts once
+                }
+                previous = c;
+                position++;
+            }
+            append(buffer, start, position - start);
+            if (position < limit) {
+                position++;  // The quote
+                if (peek() == '"') {
+                    position++;
+                    append('"');  // Escaped quote
+                    previous = '"';
+                } else {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Consumes the line break that ended a record.
+     */
+    private void endLine(int c) throws IOException {
+        if (c == '\r' && peek() == '\n') {
+            position++;
+        }
+        if (c != -1) {
+            line++;
+        }
+    }
+
+    /**
+     * Skips the rest of a malformed line so the next call to next() starts on a fresh record.
+     */
+    private void skipLine(int c) throws IOException {
+        while (c != '\n' && c != '\r' && c != -1) {
+            c = read();
+        }
+        endLine(c);
+        fieldCount = 0;
+        recordLength = 0;
+    }
+
+    private int peek() throws IOException {
+        if (position >= limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private int read() throws IOException {
+        if (position >= limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++];
+    }
+
+    /**
+     * Refills the input buffer.
+     *
+     * @return false at the end of the input.
+     */
+    private boolean fill() throws IOException {
+        if (endOfInput) {
+            return false;
+        }
+        int n;
+        do {
+            n = in.read(buffer, 0, buffer.length);
+        } while (n == 0);
+        if (n < 0) {
+            endOfInput = true;
+            position = limit = 0;
+            return false;
+        }
+        position = 0;
+        limit = n;
+        return true;
+    }
+
+    private void append(char[] chars, int offset, int length) {
+        if (length == 0) {
+            return;
+        }
+        ensureCapacity(recordLength + length);
+        System.arraycopy(chars, offset, record, recordLength, length);
+        recordLength += length;
+    }
+
+    private void append(char c) {
+        ensureCapacity(recordLength + 1);
+        record[recordLength++] = c;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > record.length) {
+            record = Arrays.copyOf(record, Math.max(capacity, record.length * 2));
+        }
+    }
+
+    private void addField(int start, int end) {
+        if (fieldCount == fields.length) {
+            fields = Arrays.copyOf(fields, fields.length * 2);
+            for (int i = fieldCount; i < fields.length; i++) {
+                fields[i] = new Field();
+            }
+        }
+        Field field = fields[fieldCount++];
+        field.start = start;
+        field.end = end;
+    }
+
+    /**
+     * @return The number of fields in the current record. An empty line is one empty field.
+     */
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * @return A view of a field, valid until the next call to next().
+     */
+    public CharSequence field(int index) {
+        if (index < 0 || index >= fieldCount) {
+            throw new IndexOutOfBoundsException("Field " + index + " of " + fieldCount);
+        }
+        return fields[index];
+    }
+
+    /**
+     * @return A field as a new String.
+     */
+    public String getString(int index) {
+        return field(index).toString();
+    }
+
+    /**
+     * Parses a field as a decimal integer without allocating.
+     *
+     * @throws CsvException if the field is not an integer.
+     */
+    public int getInt(int index) throws CsvException {
+        CharSequence field = field(index);
+        try {
+            return Integer.parseInt(field, 0, field.length(), 10);
+        } catch (NumberFormatException e) {
+            throw new CsvException("field " + (index + 1) + " is not a number: \"" + field + "\"", recordLine);
+        }
+    }
+
+    /**
+     * @return true if the field equals the text, ignoring case.
+     */
+    public boolean fieldEqualsIgnoreCase(int index, String text) {
+        Field field = (Field) field(index);
+        if (field.length() != text.length()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            char a = record[field.start + i];
+            char b = text.charAt(i);
+            if (a != b && Character.toUpperCase(a) != Character.toUpperCase(b)
+                    && Character.toLowerCase(a) != Character.toLowerCase(b)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the current record is an empty line.
+     */
+    public boolean isBlankLine() {
+        return fieldCount == 1 && fields[0].length() == 0;
+    }
+
+    /**
+     * @return The line on which the current record starts, counting from 1.
+     */
+    public long getLineNumber() {
+        return recordLine;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
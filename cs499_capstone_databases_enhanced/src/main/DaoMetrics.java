@@ -0,0 +1,283 @@
+package main;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Per-operation counters and latency histograms for the course DAO.
+ *
+ * Each public CourseDAO operation runs inside an Operation opened with begin(). While it is
+ * open, the connection pool reports the time spent borrowing a connection (connect),
+ * preparing statements (prepare) and executing statements and commits (execute) to the
+ * operation on the current thread. When the operation closes, its total latency and the time
+ * in each phase are recorded; whatever is left over is reported as row mapping (map): walking
+ * result sets, building Course objects, and other work in the DAO itself.
+ *
+ * Every operation is published as an MXBean named main:type=CourseDAO,name=&lt;operation&gt;,
+ * and dump() formats all of them as text. Recording costs a few System.nanoTime() calls and
+ * atomic increments per operation; -Dadvising.metrics.enabled=false turns it off entirely.
+ */
+public class DaoMetrics {
+
+    static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("advising.metrics.enabled", "true"));
+
+    private static final Map<String, OperationMetrics> OPERATIONS = new ConcurrentHashMap<>();
+
+    // The operation running on each thread; reused so recording does not allocate
+    private static final ThreadLocal<Operation> CURRENT = ThreadLocal.withInitial(Operation::new);
+
+    // Returned by begin() when metrics are disabled
+    private static final Operation DISABLED = new Operation();
+
+    /**
+     * Management interface of one operation's metrics.
+     */
+    public interface OperationMXBean {
+        long getCalls();
+
+        long getErrors();
+
+        long getRowsRead();
+
+        long getRowsWritten();
+
+        LatencyHistogram.Snapshot getTotal();
+
+        LatencyHistogram.Snapshot getConnect();
+
+        LatencyHistogram.Snapshot getPrepare();
+
+        LatencyHistogram.Snapshot getExecute();
+
+        LatencyHistogram.Snapshot getMap();
+    }
+
+    /**
+     * Accumulated metrics for one named operation.
+     */
+    static final class OperationMetrics implements OperationMXBean {
+        final LongAdder calls = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder rowsRead = new LongAdder();
+        final LongAdder rowsWritten = new LongAdder();
+        final LatencyHistogram total = new LatencyHistogram();
+        final LatencyHistogram connect = new LatencyHistogram();
+        final LatencyHistogram prepare = new LatencyHistogram();
+        final LatencyHistogram execute = new LatencyHistogram();
+        final LatencyHistogram map = new LatencyHistogram();
+
+        @Override
+        public long getCalls() {
+            return calls.sum();
+        }
+
+        @Override
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        @Override
+        public long getRowsRead() {
+            return rowsRead.sum();
+        }
+
+        @Override
+        public long getRowsWritten() {
+            return rowsWritten.sum();
+        }
+
+        @Override
+        public LatencyHistogram.Snapshot getTotal() {
+            return total.snapshot();
+        }
+
+        @Override
+        public LatencyHistogram.Snapshot getConnect() {
+            return connect.snapshot();
+        }
+
+        @Override
+        public LatencyHistogram.Snapshot getPrepare() {
+            return prepare.snapshot();
+        }
+
+        @Override
+        public LatencyHistogram.Snapshot getExecute() {
+            return execute.snapshot();
+        }
+
+        @Override
+        public LatencyHistogram.Snapshot getMap() {
+            return map.snapshot();
+        }
+    }
+
+    /**
+     * A running operation. Nested operations (a DAO method calling another) are folded into
+     * the outermost one, which is the one the caller asked for.
+     */
+    public static final class Operation implements AutoCloseable {
+        private OperationMetrics metrics;
+        private int depth;
+        private long start;
+        private long connectNanos;
+        private long prepareNanos;
+        private long executeNanos;
+        private long rowsRead;
+        private long rowsWritten;
+        private long errors;
+
+        private Operation() {
+            // One per thread, reused; see begin()
+        }
+
+        @Override
+        public void close() {
+            if (this == DISABLED || --depth > 0) {
+                return;
+            }
+            long elapsed = System.nanoTime() - start;
+            metrics.calls.increment();
+            metrics.total.record(elapsed);
+            metrics.connect.record(connectNanos);
+            metrics.prepare.record(prepareNanos);
+            metrics.execute.record(executeNanos);
+            metrics.map.record(elapsed - connectNanos - prepareNanos - executeNanos);
+            if (rowsRead > 0) {
+                metrics.rowsRead.add(rowsRead);
+            }
+            if (rowsWritten > 0) {
+                metrics.rowsWritten.add(rowsWritten);
+            }
+            if (errors > 0) {
+                metrics.errors.add(errors);
+            }
+            metrics = null;
+        }
+    }
+
+    private DaoMetrics() {
+        // Static methods only
+    }
+
+    /**
+     * Starts timing an operation on the current thread.
+     * Use with try-with-resources so the operation is recorded even when it fails. The body
+     * rarely uses the operation itself, so declare it first and name it as the resource,
+     * as in {@code Operation op = begin("name"); try (op) { ... }}, which keeps -Xlint:try quiet.
+     *
+     * @param name The operation name, normally the DAO method name.
+     */
+    public static Operation begin(String name) {
+        if (!ENABLED) {
+            return DISABLED;
+        }
+        Operation op = CURRENT.get();
+        if (op.depth++ == 0) {
+            op.metrics = OPERATIONS.computeIfAbsent(name, DaoMetrics::register);
+            op.connectNanos = 0;
+            op.prepareNanos = 0;
+            op.executeNanos = 0;
+            op.rowsRead = 0;
+            op.rowsWritten = 0;
+            op.errors = 0;
+            op.start = System.nanoTime();
+        }
+        return op;
+    }
+
+    /**
+     * Returns the operation running on this thread, or null if there is none.
+     */
+    private static Operation current() {
+        if (!ENABLED) {
+            return null;
+        }
+        Operation op = CURRENT.get();
+        return op.depth > 0 ? op : null;
+    }
+
+    static void recordConnect(long nanos) {
+        Operation op = current();
+        if (op != null) {
+            op.connectNanos += nanos;
+        }
+    }
+
+    static void recordPrepare(long nanos) {
+        Operation op = current();
+        if (op != null) {
+            op.prepareNanos += nanos;
+        }
+    }
+
+    static void recordExecute(long nanos, long rowsWritten) {
+        Operation op = current();
+        if (op != null) {
+            op.executeNanos += nanos;
+            op.rowsWritten += rowsWritten;
+        }
+    }
+
+    static void recordError() {
+        Operation op = current();
+        if (op != null) {
+            op.errors++;
+        }
+    }
+
+    static void addRowsRead(long rows) {
+        Operation op = current();
+        if (op != null) {
+            op.rowsRead += rows;
+        }
+    }
+
+    /**
+     * Creates the metrics for a new operation and publishes them over JMX.
+     */
+    private static OperationMetrics register(String name) {
+        OperationMetrics metrics = new OperationMetrics();
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(metrics,
+                    new ObjectName("main:type=CourseDAO,name=" + name));
+        } catch (JMException e) {
+            // Metrics are still kept and shown by dump() without JMX
+            System.out.println("Could not register metrics for " + name + " with JMX: " + e.getMessage());
+        }
+        return metrics;
+    }
+
+    /**
+     * Formats every operation's counters and latency percentiles as plain text.
+     *
+     * Time complexity: O(k * b) for k operations and b histogram buckets.
+     */
+    public static String dump() {
+        if (!ENABLED) {
+            return "DAO metrics are disabled (-Dadvising.metrics.enabled=false).";
+        }
+        if (OPERATIONS.isEmpty()) {
+            return "No DAO operations recorded yet.";
+        }
+        StringBuilder out = new StringBuilder();
+        for (Map.Entry<String, OperationMetrics> entry : new TreeMap<>(OPERATIONS).entrySet()) {
+            OperationMetrics metrics = entry.getValue();
+            out.append(String.format("%s: %d calls, %d errors, %d rows read, %d rows written%n",
+                    entry.getKey(), metrics.getCalls(), metrics.getErrors(),
+                    metrics.getRowsRead(), metrics.getRowsWritten()));
+            out.append("  total    ").append(metrics.getTotal()).append(System.lineSeparator());
+            out.append("  connect  ").append(metrics.getConnect()).append(System.lineSeparator());
+            out.append("  prepare  ").append(metrics.getPrepare()).append(System.lineSeparator());
+            out.append("  execute  ").append(metrics.getExecute()).append(System.lineSeparator());
+            out.append("  map      ").append(metrics.getMap()).append(System.lineSeparator());
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,166 @@
+package main;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.sqlite.SQLiteConnection;
+
+/**
+ * Hot backup and restore of the advising program database.
+ * Backups use SQLite's online backup API on a pooled connection while the program keeps
+ * running. In WAL mode the copy is a consistent snapshot taken inside one read transaction,
+ * so other readers and writers are not blocked while it runs.
+ *
+ * A restore cannot replace the database under open connections, so it is staged next to
+ * the database file and swapped in atomically the next time the connection pool starts.
+ */
+public class DatabaseBackup {
+
+    // A backup staged here replaces the database when the connection pool next starts
+    static final Path PENDING_RESTORE = Paths.get(DatabaseManager.DB_FILE + ".restore");
+
+    // How often backup progress is reported
+    private static final long PROGRESS_INTERVAL_MS = 500;
+
+    private DatabaseBackup() {
+        // Static methods only
+    }
+
+    /**
+     * Copies the live database to a backup file. The copy is written to a temporary file
+     * first and renamed into place once complete, so a failed backup never leaves a partial
+     * file under the destination name.
+     *
+     * Time complexity: O(p) for a database of p pages.
+     *
+     * @param destination The backup file to create or replace.
+     * @return The size of the backup in bytes.
+     * @throws SQLException if the database cannot be read or the backup fails.
+     * @throws IOException if the backup file cannot be moved into place.
+     */
+    public static long backup(Path destination) throws SQLException, IOException {
+        Path temp = destination.resolveSibling(destination.getFileName() + ".tmp");
+        Files.deleteIfExists(temp);
+
+        try (Connection conn = DatabaseManager.connect()) {
+            long pageSize = pragma(conn, "page_size");
+            long pageCount = pragma(conn, "page_count");
+            System.out.println("Backing up " + pageCount + " pages to " + destination + "...");
+
+            // The bundled driver copies every page in one backup step without progress callbacks,
+            // so progress is sampled from the size of the file being written.
+            Thread monitor = new Thread(() -> reportProgress(temp, pageSize, pageCount), "database-backup-progress");
+            monitor.setDaemon(true);
+            long start = System.nanoTime();
+            monitor.start();
+            try {
+                conn.unwrap(SQLiteConnection.class).getDatabase().backup("main", temp.toString(), null);
+            } finally {
+                monitor.interrupt();
+            }
+            long elapsedNanos = System.nanoTime() - start;
+
+            Files.move(temp, destination, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            long bytes = Files.size(destination);
+            double seconds = Math.max(elapsedNanos / 1e9, 1e-9);
+            System.out.printf("Backup complete: %d pages, %.1f MB in %.0f ms (%.1f MB/s).%n",
+                    bytes / pageSize, bytes / 1e6, elapsedNanos / 1e6, bytes / 1e6 / seconds);
+            return bytes;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Prints the percentage of pages written until interrupted.
+     */
+    private static void reportProgress(Path temp, long pageSize, long pageCount) {
+        try {
+            while (true) {
+                Thread.sleep(PROGRESS_INTERVAL_MS);
+                if (Files.exists(temp) && pageCount > 0) {
+                    long pages = Math.min(Files.size(temp) / pageSize, pageCount);
+                    System.out.printf("  %d/%d pages (%.0f%%)%n", pages, pageCount, 100.0 * pages / pageCount);
+                }
+            }
+        } catch (InterruptedException | IOException e) {
+            // Backup finished (or the file went away); stop reporting
+        }
+    }
+
+    /**
+     * Verifies a backup and stages it to replace the database the next time the program starts.
+     *
+     * Time complexity: O(p) for a backup of p pages, to check and copy it.
+     *
+     * @param backup The backup file to restore.
+     * @throws SQLException if the backup is not a valid, intact database.
+     * @throws IOException if the backup cannot be copied.
+     */
+    public static void scheduleRestore(Path backup) throws SQLException, IOException {
+        if (!Files.isRegularFile(backup)) {
+            throw new IOException("Backup file not found: " + backup);
+        }
+        verify(backup);
+
+        Path temp = PENDING_RESTORE.resolveSibling(PENDING_RESTORE.getFileName() + ".tmp");
+        Files.copy(backup, temp, StandardCopyOption.REPLACE_EXISTING);
+        Files.move(temp, PENDING_RESTORE, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        System.out.println("Restore from " + backup + " scheduled; it will be applied the next time the program starts.");
+    }
+
+    /**
+     * Swaps a staged backup in for the database file. Must be called before any connection is opened;
+     * DatabaseManager does this when it creates the connection pool.
+     * The old WAL and shared-memory files are deleted first so they can never be replayed onto the
+     * restored database. The staged file is only removed by the final atomic rename, so a restore
+     * interrupted part way is simply retried on the next start.
+     *
+     * Time complexity: O(1), since the backup is renamed rather than copied.
+     *
+     * @return true if a backup was restored.
+     * @throws IOException if the backup could not be moved into place.
+     */
+    static boolean applyPendingRestore() throws IOException {
+        if (!Files.exists(PENDING_RESTORE)) {
+            return false;
+        }
+        Path database = Paths.get(DatabaseManager.DB_FILE);
+        Files.deleteIfExists(Paths.get(DatabaseManager.DB_FILE + "-wal"));
+        Files.deleteIfExists(Paths.get(DatabaseManager.DB_FILE + "-shm"));
+        Files.move(PENDING_RESTORE, database, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        System.out.println("Restored the database from the scheduled backup.");
+        return true;
+    }
+
+    /**
+     * Runs SQLite's quick_check on a database file.
+     *
+     * @throws SQLException if the file is not a database or reports corruption.
+     */
+    private static void verify(Path file) throws SQLException {
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + file);
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA quick_check")) {
+            String result = rs.next() ? rs.getString(1) : "no result";
+            if (!"ok".equals(result)) {
+                throw new SQLException("Backup failed integrity check: " + result);
+            }
+        }
+    }
+
+    private static long pragma(Connection conn, String name) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA " + name)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+}
@@ -1,9 +1,9 @@
 package main;
 
+import java.io.IOException;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * DatabaseManager class for handling database connections and table creation in SQLite.
@@ -12,34 +12,109 @@ import java.sql.Statement;
  */
 public class DatabaseManager {
 
-    // URL for the SQLite database file. The database will be created if it doesn't exist.
-    private static final String URL = "jdbc:sqlite:advisingProgram.db";
+    // The SQLite database file and its URL. The database will be created if it doesn't exist.
+    // -Dadvising.db.file points the program at another file, e.g. the tests at a temporary one
+    static final String DB_FILE = System.getProperty("advising.db.file", "advisingProgram.db");
+    private static final String URL = "jdbc:sqlite:" + DB_FILE;
+
+    // Pool settings, overridable with system properties (e.g. -Dadvising.pool.size=8)
+    private static final int POOL_SIZE = Integer.getInteger("advising.pool.size", 4);
+    private static final long POOL_IDLE_TIMEOUT_MS = Long.getLong("advising.pool.idleTimeoutMs", 300_000L);
+    private static final long POOL_HEALTH_CHECK_MS = Long.getLong("advising.pool.healthCheckMs", 30_000L);
+    private static final long POOL_BORROW_TIMEOUT_MS = Long.getLong("advising.pool.borrowTimeoutMs", 30_000L);
+    private static final int STATEMENT_CACHE_SIZE = Integer.getInteger("advising.pool.statementCacheSize", 32);
+
+    // Performance preset applied to every pooled connection (-Dadvising.sqlite.profile)
+    private static final SqliteProfile PROFILE = SqliteProfile.fromSystemProperty();
+
+    // Shared pool of connections, created on first use
+    private static ConnectionPool pool;
+
+    private DatabaseManager() {
+        // Static methods only
+    }
 
     /**
-     * Establishes a connection to the SQLite database.
+     * Borrows a connection to the SQLite database from the shared connection pool.
+     * Closing the returned connection hands it back to the pool for reuse.
      * 
-     * Time complexity: O(1) since establishing a connection is constant time.
+     * Time complexity: O(1) once the pool has warmed up, since idle connections are reused.
      * 
-     * @return A Connection object if the connection is successful, or null if an error occurs.
+     * @return A pooled Connection object.
+     * @throws SQLException if no connection could be obtained.
      */
-    public static Connection connect() {
-        Connection conn = null;
+    public static Connection connect() throws SQLException {
+        long start = System.nanoTime();
         try {
-            // Establish a connection to the SQLite database
-            conn = DriverManager.getConnection(URL);
-            System.out.println("Connection to SQLite has been established.");
+            return getPool().borrow();
         } catch (SQLException e) {
-            // Print error message if connection fails
-            System.out.println(e.getMessage());
+            DaoMetrics.recordError();
+            throw e;
+        } finally {
+            DaoMetrics.recordConnect(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Returns the shared connection pool, creating it on first use.
+     * Each new physical connection is configured with the selected SqliteProfile.
+     * A restore scheduled with DatabaseBackup is applied first, while no connections are open.
+     */
+    public static synchronized ConnectionPool getPool() {
+        if (pool == null) {
+            try {
+                DatabaseBackup.applyPendingRestore();
+            } catch (IOException e) {
+                System.out.println("Error restoring the database from backup: " + e.getMessage());
+            }
+            pool = new ConnectionPool(URL, POOL_SIZE, POOL_IDLE_TIMEOUT_MS,
+                    POOL_HEALTH_CHECK_MS, POOL_BORROW_TIMEOUT_MS, STATEMENT_CACHE_SIZE) {
+                // Announce the database once per pool, not for every physical connection it opens
+                private final AtomicBoolean established = new AtomicBoolean();
+
+                @Override
+                protected Connection open() throws SQLException {
+                    Connection conn = super.open();
+                    try {
+                        PROFILE.apply(conn);
+                    } catch (SQLException e) {
+                        conn.close();
+                        throw e;
+                    }
+                    if (established.compareAndSet(false, true)) {
+                        System.out.println("Connection to SQLite has been established.");
+                    }
+                    return conn;
+                }
+            };
         }
-        return conn;
+        return pool;
     }
 
     /**
-     * Creates the necessary tables in the SQLite database if they don't already exist.
-     * The Course table stores course details, and the Prerequisite table stores prerequisite relationships.
+     * @return The SQLite performance preset in use.
+     */
+    public static SqliteProfile getProfile() {
+        return PROFILE;
+    }
+
+    /**
+     * Closes all pooled connections. Should be called once when the program exits.
+     */
+    public static synchronized void shutdown() {
+        if (pool != null) {
+            pool.close();
+            pool = null;
+        }
+    }
+
+    /**
+     * Creates the necessary tables in the SQLite database, or upgrades an existing database
+     * to the latest schema version. The Course table stores course details, and the
+     * Prerequisite table stores prerequisite relationships. The schema itself is defined
+     * by the ordered migrations in SchemaMigrations.
      * 
-     * Time complexity: O(1) as table creation is constant time, provided the tables don't already exist.
+     * Time complexity: O(1) when the schema is already up to date.
      * 
      * The Course table:
      * - courseId (TEXT): The primary key that uniquely identifies each course.
@@ -50,31 +125,14 @@ public class DatabaseManager {
      * The Prerequisite table:
      * - courseId (TEXT): A foreign key that refers to the course in the Course table.
      * - prerequisiteId (TEXT): The course ID of the prerequisite course.
+     * - (courseId, prerequisiteId) is the primary key, and prerequisiteId is indexed separately.
      * 
      * Both tables are created with foreign key constraints to ensure data integrity.
      */
     public static void createCourseTable() {
-        // SQL statement to create the Course table
-        String courseTable = "CREATE TABLE IF NOT EXISTS Course ("
-                + " courseId TEXT PRIMARY KEY,"  // Primary key for unique course identification
-                + " courseName TEXT NOT NULL,"   // Course name, required field
-                + " credits INTEGER NOT NULL,"   // Number of credits for the course
-                + " department TEXT NOT NULL"    // Department offering the course
-                + ");";
-
-        // SQL statement to create the Prerequisite table
-        String prerequisiteTable = "CREATE TABLE IF NOT EXISTS Prerequisite ("
-                + " courseId TEXT NOT NULL,"  // Foreign key referencing courseId in Course table
-                + " prerequisiteId TEXT NOT NULL,"  // Prerequisite course ID
-                + " FOREIGN KEY(courseId) REFERENCES Course(courseId)"  // Foreign key constraint
-                + ");";
-
-        // Execute the SQL statements to create the tables
-        try (Connection conn = connect();
-             Statement stmt = conn.createStatement()) {
-            stmt.execute(courseTable);  // Create the Course table
-            stmt.execute(prerequisiteTable);  // Create the Prerequisite table
-            System.out.println("Course and Prerequisite tables created.");
+        try (Connection conn = connect()) {
+            int version = SchemaMigrations.migrate(conn);
+            System.out.println("Course and Prerequisite tables are at schema version " + version + ".");
         } catch (SQLException e) {
             // Handle SQL exceptions (such as syntax errors or connection issues)
             System.out.println(e.getMessage());
@@ -0,0 +1,360 @@
+package main;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Imports a CSV catalog as a two-stage pipeline, so parsing and database writes overlap.
+ * A parser thread reads and validates records and hands them over in batches through a bounded
+ * queue; the calling thread is the single writer and inserts the batches with
+ * CourseDAO.insertCourses, one transaction per batch. When the writer falls behind, the queue
+ * fills and the parser blocks (backpressure), so memory use stays at most a few batches no
+ * matter how large the file is.
+ *
+ * The first fatal error stops both stages: a read error ends the parser and makes the writer
+ * roll back the batch it is building, and a database error makes the parser stop at its next
+ * hand-over. Batches committed before the error stay in the database. Invalid records are not
+ * fatal; they are skipped and reported in the result, as are courses the database rejects.
+ */
+public class ImportPipeline {
+
+    // Batches the queue holds between the stages (-Dadvising.import.queueCapacity)
+    public static final int DEFAULT_QUEUE_CAPACITY = Integer.getInteger("advising.import.queueCapacity", 8);
+
+    // How often a blocked parser checks whether the writer has failed
+    private static final long OFFER_TIMEOUT_MS = 50;
+
+    // Marks the end of the parser's output
+    private static final List<Course> END = Collections.emptyList();
+
+    /**
+     * Outcome and per-stage statistics of a pipelined import.
+     */
+    public static class Result {
+        private final List<CsvReader.CsvException> parseErrors = new ArrayList<>();
+        private final BulkInsertResult insertResult = new BulkInsertResult();
+        private Exception failure;
+
+        private long elapsedNanos;
+        private long parsed;
+        private long parseNanos;
+        private long parseBlockedNanos;
+        private long written;
+        private long writeNanos;
+        private long writeStarvedNanos;
+        private int queueCapacity;
+        private long depthSamples;
+        private long depthTotal;
+        private int maxDepth;
+
+        private Result() {
+            // Filled in by Run
+        }
+
+        /**
+         * @return The records that could not be parsed, in file order.
+         */
+        public List<CsvReader.CsvException> getParseErrors() {
+            return Collections.unmodifiableList(parseErrors);
+        }
+
+        /**
+         * @return The number of committed courses and the courses the database rejected.
+         */
+        public BulkInsertResult getInsertResult() {
+            return insertResult;
+        }
+
+        /**
+         * @return The IOException or SQLException that stopped the import, or null if it ran to the end.
+         */
+        public Exception getFailure() {
+            return failure;
+        }
+
+        /**
+         * @return Courses parsed per second while the parser was working (not blocked on the queue).
+         */
+        public double getParseRate() {
+            return rate(parsed, parseNanos);
+        }
+
+        /**
+         * @return Courses written per second while the writer was working (not waiting for input).
+         */
+        public double getWriteRate() {
+            return rate(written, writeNanos);
+        }
+
+        /**
+         * @return The average number of batches waiting in the queue when the writer took one.
+         */
+        public double getAverageQueueDepth() {
+            return depthSamples == 0 ? 0 : (double) depthTotal / depthSamples;
+        }
+
+        public int getMaxQueueDepth() {
+            return maxDepth;
+        }
+
+        private static double rate(long count, long nanos) {
+            return nanos == 0 ? 0 : count * 1e9 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Import pipeline finished in %d ms%n"
+                    + "  Parser: %d courses, %.0f/s, blocked %d ms on a full queue%n"
+                    + "  Writer: %d courses, %.0f/s, waited %d ms for input%n"
+                    + "  Queue:  capacity %d batches, average depth %.1f, max %d",
+                    elapsedNanos / 1_000_000,
+                    parsed, getParseRate(), parseBlockedNanos / 1_000_000,
+                    written, getWriteRate(), writeStarvedNanos / 1_000_000,
+                    queueCapacity, getAverageQueueDepth(), maxDepth);
+        }
+    }
+
+    /**
+     * Thrown through CourseDAO.insertCourses to make the writer abandon its current batch
+     * when the parser has failed.
+     */
+    private static class ParserFailedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        ParserFailedException() {
+            super(null, null, false, false);
+        }
+    }
+
+    private final CourseDAO courseDAO;
+    private final int batchSize;
+    private final int queueCapacity;
+
+    public ImportPipeline(CourseDAO courseDAO) {
+        this(courseDAO, CourseDAO.DEFAULT_BATCH_SIZE, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * @param batchSize      Courses per batch, and per transaction on the writer.
+     * @param queueCapacity  Batches the queue holds before the parser blocks.
+     */
+    public ImportPipeline(CourseDAO courseDAO, int batchSize, int queueCapacity) {
+        if (batchSize < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Batch size and queue capacity must be at least 1");
+        }
+        this.courseDAO = courseDAO;
+        this.batchSize = batchSize;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Parses the CSV on a new thread and writes the courses on the calling thread.
+     * The reader is closed when parsing ends.
+     *
+     * Time complexity: O(c + n + m) for c characters, n courses and m prerequisites; the stages
+     * run concurrently, so the elapsed time is close to that of the slower stage.
+     *
+     * @param in      The CSV text.
+     * @param parser  Turns each record into a course, or null to skip it.
+     * @return The outcome; check getFailure() to see whether the import stopped early.
+     */
+    public Result run(Reader in, ParallelCsvLoader.RecordParser<Course> parser) {
+        return new Run(in, parser).execute();
+    }
+
+    /**
+     * State shared by the two stages of one import.
+     */
+    private class Run {
+        private final Reader in;
+        private final ParallelCsvLoader.RecordParser<Course> parser;
+        private final Result result = new Result();
+        private final BlockingQueue<List<Course>> queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        // The first fatal error of either stage
+        private final AtomicReference<Exception> failure = new AtomicReference<>();
+
+        // Set once the writer has stopped taking batches, so a blocked parser gives up
+        private volatile boolean writerStopped;
+
+        Run(Reader in, ParallelCsvLoader.RecordParser<Course> parser) {
+            this.in = in;
+            this.parser = parser;
+            result.queueCapacity = queueCapacity;
+        }
+
+        Result execute() {
+            long start = System.nanoTime();
+            Thread parserThread = new Thread(this::parse, "import-parser");
+            parserThread.start();
+
+            try {
+                courseDAO.insertCourses(QueueIterator::new, batchSize, result.insertResult);
+            } catch (ParserFailedException e) {
+                // The parser's error is already recorded; the writer's open batch was rolled back
+            } catch (SQLException e) {
+                failure.compareAndSet(null, e);
+            } finally {
+                writerStopped = true;
+            }
+
+            try {
+                parserThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            result.failure = failure.get();
+            result.elapsedNanos = System.nanoTime() - start;
+            return result;
+        }
+
+        /**
+         * The parser stage: reads records, groups them into batches and hands them to the writer.
+         * Always ends by handing over END, unless the writer has already stopped, so the writer
+         * never waits forever. If the parser stops without reaching the end of the input, whatever
+         * the reason, a failure is recorded so the writer rolls back its open batch.
+         */
+        private void parse() {
+            long busyStart = System.nanoTime();
+            boolean finished = false;
+            try (CsvReader csv = new CsvReader(in)) {
+                List<Course> batch = new ArrayList<>(batchSize);
+                while (true) {
+                    try {
+                        if (!csv.next()) {
+                            break;
+                        }
+                        Course course = parser.parse(csv);
+                        if (course != null) {
+                            batch.add(course);
+                            result.parsed++;
+                        }
+                    } catch (CsvReader.CsvException e) {
+                        result.parseErrors.add(e);
+                    }
+
+                    if (batch.size() == batchSize) {
+                        result.parseNanos += System.nanoTime() - busyStart;
+                        if (!handOver(batch)) {
+                            finished = true;
+                            return;  // The writer failed; its error is the one reported
+                        }
+                        busyStart = System.nanoTime();
+                        batch = new ArrayList<>(batchSize);
+                    }
+                }
+                result.parseNanos += System.nanoTime() - busyStart;
+                finished = true;
+                if (!batch.isEmpty()) {
+                    handOver(batch);
+                }
+            } catch (IOException e) {
+                result.parseNanos += System.nanoTime() - busyStart;
+                failure.compareAndSet(null, e);
+            } catch (RuntimeException e) {
+                // A bug in the record parser, or an unchecked error from the reader
+                result.parseNanos += System.nanoTime() - busyStart;
+                failure.compareAndSet(null, new IOException("Error parsing the catalog: " + e, e));
+            } catch (InterruptedException e) {
+                failure.compareAndSet(null, new IOException("Import interrupted", e));
+            } finally {
+                if (!finished) {
+                    failure.compareAndSet(null, new IOException("Import stopped before the end of the catalog"));
+                }
+                try {
+                    handOver(END);
+                } catch (InterruptedException e) {
+                    failure.compareAndSet(null, new IOException("Import interrupted", e));
+                }
+            }
+        }
+
+        /**
+         * Puts a batch on the queue, waiting while it is full.
+         *
+         * @return false if the writer has stopped, in which case the batch is dropped.
+         */
+        private boolean handOver(List<Course> batch) throws InterruptedException {
+            long blockedStart = System.nanoTime();
+            try {
+                while (!queue.offer(batch, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    if (writerStopped) {
+                        return false;
+                    }
+                }
+                return true;
+            } finally {
+                result.parseBlockedNanos += System.nanoTime() - blockedStart;
+            }
+        }
+
+        /**
+         * The writer's view of the queue: the parsed courses one at a time, waiting for each batch.
+         * Ends when the parser is done, or throws ParserFailedException if the parser hit a fatal error.
+         */
+        private class QueueIterator implements Iterator<Course> {
+            private Iterator<Course> current = Collections.emptyIterator();
+            private boolean done;
+            private long busyStart = System.nanoTime();
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext()) {
+                    if (done) {
+                        return false;
+                    }
+                    List<Course> batch = take();
+                    if (batch == END) {
+                        done = true;
+                        result.writeNanos += System.nanoTime() - busyStart;
+                        if (failure.get() != null) {
+                            throw new ParserFailedException();
+                        }
+                        return false;
+                    }
+                    current = batch.iterator();
+                }
+                return true;
+            }
+
+            @Override
+            public Course next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                result.written++;
+                return current.next();
+            }
+
+            private List<Course> take() {
+                result.writeNanos += System.nanoTime() - busyStart;
+                int depth = queue.size();
+                result.depthSamples++;
+                result.depthTotal += depth;
+                result.maxDepth = Math.max(result.maxDepth, depth);
+
+                long waitStart = System.nanoTime();
+                try {
+                    return queue.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    failure.compareAndSet(null, new IOException("Import interrupted", e));
+                    throw new ParserFailedException();
+                } finally {
+                    busyStart = System.nanoTime();
+                    result.writeStarvedNanos += busyStart - waitStart;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of an incremental catalog import through CourseDAO.importCoursesIncremental.
+ * Counts each kind of change and lists the courses that could not be written.
+ */
+public class ImportSummary {
+
+    int inserted;
+    int updated;
+    int unchanged;
+    int deleted;
+    int withheld;
+    private final List<BulkInsertResult.RowError> errors = new ArrayList<>();
+
+    ImportSummary() {
+        // Counts start at zero and are filled in by CourseDAO
+    }
+
+    void addError(String courseId, String message) {
+        errors.add(new BulkInsertResult.RowError(courseId, message));
+    }
+
+    public int getInserted() {
+        return inserted;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    public int getUnchanged() {
+        return unchanged;
+    }
+
+    public int getDeleted() {
+        return deleted;
+    }
+
+    /**
+     * @return The courses missing from the catalog that were kept because removals were withheld.
+     */
+    public int getWithheld() {
+        return withheld;
+    }
+
+    /**
+     * @return The courses that failed to write, in input order.
+     */
+    public List<BulkInsertResult.RowError> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    @Override
+    public String toString() {
+        return inserted + " inserted, " + updated + " updated, " + unchanged + " unchanged, "
+                + deleted + " deleted, " + errors.size() + " failed"
+                + (withheld > 0 ? ", " + withheld + " removals withheld" : "");
+    }
+}
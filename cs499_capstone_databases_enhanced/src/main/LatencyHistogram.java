@@ -0,0 +1,160 @@
+package main;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with logarithmic buckets.
+ * Each power of two is split into 8 linear sub-buckets, so any recorded value is reported
+ * within 12.5% of its true value while the whole range of a long fits in under 500 counters.
+ * Recording is a bucket index computation and an atomic increment, cheap enough to leave
+ * on for every database call.
+ */
+public class LatencyHistogram {
+
+    // Sub-buckets per power of two: 2^SUB_BITS
+    private static final int SUB_BITS = 3;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int BUCKET_COUNT = (64 - SUB_BITS) * SUB_COUNT;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Creates an empty histogram.
+     */
+    public LatencyHistogram() {
+    }
+
+    /**
+     * Records one value, in nanoseconds. Negative values are recorded as 0.
+     *
+     * Time complexity: O(1).
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        buckets.incrementAndGet(bucketOf(value));
+        count.increment();
+        sum.add(value);
+        long current;
+        while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+            // Another thread raised the maximum; retry against the new value
+        }
+    }
+
+    /**
+     * Values below SUB_COUNT get a bucket each; above that, the bucket is chosen by the
+     * highest set bit and the SUB_BITS bits below it.
+     */
+    private static int bucketOf(long value) {
+        if (value < SUB_COUNT) {
+            return (int) value;
+        }
+        int highestBit = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (highestBit - SUB_BITS)) & (SUB_COUNT - 1);
+        return (highestBit - SUB_BITS + 1) * SUB_COUNT + sub;
+    }
+
+    /**
+     * @return The largest value that falls into the bucket.
+     */
+    private static long upperBoundOf(int bucket) {
+        if (bucket < SUB_COUNT) {
+            return bucket;
+        }
+        int shift = bucket / SUB_COUNT - 1;
+        long lower = (long) (SUB_COUNT + bucket % SUB_COUNT) << shift;
+        return lower + (1L << shift) - 1;
+    }
+
+    /**
+     * Takes a point-in-time summary. Concurrent recording may make the counts slightly
+     * inconsistent with each other, which only shifts percentiles by at most one sample.
+     *
+     * Time complexity: O(b) for b buckets.
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        long maxValue = max.get();
+        return new Snapshot(count.sum(), sum.sum(),
+                percentile(counts, total, 0.50, maxValue),
+                percentile(counts, total, 0.95, maxValue),
+                percentile(counts, total, 0.99, maxValue),
+                maxValue);
+    }
+
+    private static long percentile(long[] counts, long total, double fraction, long maxValue) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(fraction * total);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), maxValue);
+            }
+        }
+        return maxValue;
+    }
+
+    /**
+     * Summary of a histogram, in microseconds. The getters also make it usable as a
+     * composite attribute of an MXBean.
+     */
+    public static class Snapshot {
+        private final long count;
+        private final long sumNanos;
+        private final long p50Nanos;
+        private final long p95Nanos;
+        private final long p99Nanos;
+        private final long maxNanos;
+
+        Snapshot(long count, long sumNanos, long p50Nanos, long p95Nanos, long p99Nanos, long maxNanos) {
+            this.count = count;
+            this.sumNanos = sumNanos;
+            this.p50Nanos = p50Nanos;
+            this.p95Nanos = p95Nanos;
+            this.p99Nanos = p99Nanos;
+            this.maxNanos = maxNanos;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getMeanMicros() {
+            return count == 0 ? 0.0 : sumNanos / 1000.0 / count;
+        }
+
+        public double getP50Micros() {
+            return p50Nanos / 1000.0;
+        }
+
+        public double getP95Micros() {
+            return p95Nanos / 1000.0;
+        }
+
+        public double getP99Micros() {
+            return p99Nanos / 1000.0;
+        }
+
+        public double getMaxMicros() {
+            return maxNanos / 1000.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("p50 %.1f  p95 %.1f  p99 %.1f  max %.1f  mean %.1f us",
+                    getP50Micros(), getP95Micros(), getP99Micros(), getMaxMicros(), getMeanMicros());
+        }
+    }
+}
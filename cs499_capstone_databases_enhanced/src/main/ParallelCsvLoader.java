@@ -0,0 +1,253 @@
+package main;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Parses a large CSV file on several cores.
+ * The file is memory-mapped and split at line breaks into chunks, each chunk is parsed with its
+ * own CsvReader on a fork-join pool, and the results are joined in file order. Records and errors
+ * therefore come out in exactly the order a single-threaded read would produce them, with line
+ * numbers counted from the start of the file, no matter how the chunks were scheduled.
+ *
+ * Chunks are split at line breaks without looking at quotes, so a quoted field containing a line
+ * break must not straddle a chunk boundary. Such a record is reported as an error instead of being
+ * parsed; use the streaming CsvReader for files with multi-line fields.
+ *
+ * The file must be UTF-8 (or ASCII).
+ */
+public class ParallelCsvLoader {
+
+    /**
+     * Turns the current record of a CsvReader into a value.
+     */
+    @FunctionalInterface
+    public interface RecordParser<T> {
+        /**
+         * @return The parsed record, or null to skip it (e.g. a blank line).
+         * @throws CsvReader.CsvException if the record is invalid; it is reported and skipped.
+         */
+        T parse(CsvReader csv) throws CsvReader.CsvException;
+    }
+
+    /**
+     * Records and errors from a parallel parse, both in file order.
+     */
+    public static class Result<T> {
+        private final List<T> records;
+        private final List<CsvReader.CsvException> errors;
+
+        Result(List<T> records, List<CsvReader.CsvException> errors) {
+            this.records = records;
+            this.errors = errors;
+        }
+
+        public List<T> getRecords() {
+            return records;
+        }
+
+        /**
+         * @return The records that could not be parsed, in file order, with file line numbers.
+         */
+        public List<CsvReader.CsvException> getErrors() {
+            return Collections.unmodifiableList(errors);
+        }
+    }
+
+    // Worker threads (-Dadvising.import.parallelism, defaults to the number of cores)
+    public static final int DEFAULT_PARALLELISM =
+            Integer.getInteger("advising.import.parallelism", Runtime.getRuntime().availableProcessors());
+
+    // Chunks per worker, so a slow chunk does not leave the other workers idle at the end
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    // Chunk size limits: small files are not worth splitting, and one mapping must stay under 2 GB
+    private static final long MIN_CHUNK_SIZE = 1L << 20;
+    private static final long MAX_CHUNK_SIZE = 1L << 30;
+
+    private ParallelCsvLoader() {
+        // Static methods only
+    }
+
+    /**
+     * Parses a file using DEFAULT_PARALLELISM threads.
+     *
+     * @throws IOException if the file cannot be read.
+     */
+    public static <T> Result<T> parse(Path file, RecordParser<T> parser) throws IOException {
+        return parse(file, parser, DEFAULT_PARALLELISM);
+    }
+
+    /**
+     * Parses a file in parallel.
+     *
+     * Time complexity: O(c / p) for c characters on p threads, plus O(n) to join n records.
+     *
+     * @param parallelism Number of worker threads.
+     * @throws IOException if the file cannot be read.
+     */
+    public static <T> Result<T> parse(Path file, RecordParser<T> parser, int parallelism) throws IOException {
+        parallelism = Math.max(1, parallelism);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<long[]> chunks = split(channel, parallelism);
+
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                List<ForkJoinTask<ChunkResult<T>>> tasks = new ArrayList<>(chunks.size());
+                for (long[] chunk : chunks) {
+                    tasks.add(pool.submit(() -> parseChunk(channel, chunk[0], chunk[1], parser)));
+                }
+
+                // Join in file order; each chunk's line numbers are offset by the lines before it
+                List<T> records = new ArrayList<>();
+                List<CsvReader.CsvException> errors = new ArrayList<>();
+                long linesBefore = 0;
+                for (ForkJoinTask<ChunkResult<T>> task : tasks) {
+                    ChunkResult<T> chunk = task.get();
+                    records.addAll(chunk.records);
+                    for (CsvReader.CsvException e : chunk.errors) {
+                        errors.add(new CsvReader.CsvException(e.getReason(), linesBefore + e.getLineNumber()));
+                    }
+                    linesBefore += chunk.lines;
+                }
+                return new Result<>(records, errors);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while parsing " + file, e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw new IOException("Error parsing " + file + ": " + e.getCause(), e.getCause());
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Records, errors and line count of one chunk. Line numbers are relative to the chunk.
+     */
+    private static class ChunkResult<T> {
+        final List<T> records = new ArrayList<>();
+        final List<CsvReader.CsvException> errors = new ArrayList<>();
+        long lines;
+    }
+
+    private static <T> ChunkResult<T> parseChunk(FileChannel channel, long start, long end,
+            RecordParser<T> parser) throws IOException {
+        ChunkResult<T> result = new ChunkResult<>();
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        try (CsvReader csv = new CsvReader(new InputStreamReader(new ByteBufferInputStream(mapped), StandardCharsets.UTF_8))) {
+            while (true) {
+                try {
+                    if (!csv.next()) {
+                        break;
+                    }
+                    T record = parser.parse(csv);
+                    if (record != null) {
+                        result.records.add(record);
+                    }
+                } catch (CsvReader.CsvException e) {
+                    result.errors.add(e);
+                }
+            }
+            // At the end of input the reader sits on the line after the chunk's last line break
+            result.lines = csv.getLineNumber() - 1;
+        }
+        return result;
+    }
+
+    /**
+     * Splits the file into chunks of roughly equal size that each end just after a line break.
+     *
+     * @return {start, end} byte offsets of each chunk, in file order.
+     */
+    private static List<long[]> split(FileChannel channel, int parallelism) throws IOException {
+        long size = channel.size();
+        long target = size / ((long) parallelism * CHUNKS_PER_THREAD);
+        target = Math.min(MAX_CHUNK_SIZE, Math.max(MIN_CHUNK_SIZE, target));
+
+        List<long[]> chunks = new ArrayList<>();
+        long start = 0;
+        while (start < size) {
+            long end = start + target >= size ? size : nextLineStart(channel, start + target, size);
+            chunks.add(new long[] {start, end});
+            start = end;
+        }
+        return chunks;
+    }
+
+    /**
+     * @return The offset just after the first line break at or after position, or size if there is none.
+     */
+    private static long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        while (position < size) {
+            buffer.clear();
+            int n = channel.read(buffer, position);
+            if (n <= 0) {
+                break;
+            }
+            for (int i = 0; i < n; i++) {
+                byte b = buffer.get(i);
+                if (b == '\n') {
+                    return position + i + 1;
+                }
+                if (b == '\r') {
+                    // A CR ends the line unless it is the first half of a CRLF
+                    long next = position + i + 1;
+                    if (i + 1 < n) {
+                        return buffer.get(i + 1) == '\n' ? next + 1 : next;
+                    }
+                    ByteBuffer one = ByteBuffer.allocate(1);
+                    return channel.read(one, next) == 1 && one.get(0) == '\n' ? next + 1 : next;
+                }
+            }
+            position += n;
+        }
+        return size;
+    }
+
+    /**
+     * Reads a mapped region without copying it to the heap first.
+     */
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, n);
+            return n;
+        }
+    }
+}
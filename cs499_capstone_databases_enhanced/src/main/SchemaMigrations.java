@@ -0,0 +1,203 @@
+package main;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Versioned schema migrations for the advising program database.
+ * The schema_version table records every migration that has been applied. At startup,
+ * each migration newer than the recorded version is applied in order, inside its own
+ * transaction, so existing database files are upgraded in place.
+ *
+ * New schema changes must be appended to MIGRATIONS with the next version number;
+ * migrations that have already shipped must never be edited.
+ */
+public class SchemaMigrations {
+
+    /**
+     * A single schema change: a version number, a description, and the SQL statements to run.
+     */
+    static class Migration {
+        final int version;
+        final String description;
+        final String[] statements;
+
+        Migration(int version, String description, String... statements) {
+            this.version = version;
+            this.description = description;
+            this.statements = statements;
+        }
+    }
+
+    // Ordered list of all migrations
+    static final List<Migration> MIGRATIONS = List.of(
+            // The original schema. IF NOT EXISTS lets databases created before
+            // schema versioning existed adopt version 1 without changes.
+            new Migration(1, "Create Course and Prerequisite tables",
+                    "CREATE TABLE IF NOT EXISTS Course ("
+                            + " courseId TEXT PRIMARY KEY,"  // Primary key for unique course identification
+                            + " courseName TEXT NOT NULL,"   // Course name, required field
+                            + " credits INTEGER NOT NULL,"   // Number of credits for the course
+                            + " department TEXT NOT NULL"    // Department offering the course
+                            + ")",
+                    "CREATE TABLE IF NOT EXISTS Prerequisite ("
+                            + " courseId TEXT NOT NULL,"  // Foreign key referencing courseId in Course table
+                            + " prerequisiteId TEXT NOT NULL,"  // Prerequisite course ID
+                            + " FOREIGN KEY(courseId) REFERENCES Course(courseId)"  // Foreign key constraint
+                            + ")"),
+
+            // SQLite cannot add a primary key to an existing table, so the table is rebuilt.
+            // Duplicate prerequisite rows are dropped; rowid order is preserved.
+            new Migration(2, "Add composite primary key (courseId, prerequisiteId) to Prerequisite",
+                    "CREATE TABLE Prerequisite_new ("
+                            + " courseId TEXT NOT NULL,"
+                            + " prerequisiteId TEXT NOT NULL,"
+                            + " PRIMARY KEY(courseId, prerequisiteId),"
+                            + " FOREIGN KEY(courseId) REFERENCES Course(courseId)"
+                            + ")",
+                    "INSERT OR IGNORE INTO Prerequisite_new(courseId, prerequisiteId)"
+                            + " SELECT courseId, prerequisiteId FROM Prerequisite ORDER BY rowid",
+                    "DROP TABLE Prerequisite",
+                    "ALTER TABLE Prerequisite_new RENAME TO Prerequisite"),
+
+            // Reverse lookups ("which courses require X?") and deletes by prerequisite
+            new Migration(3, "Add index on Prerequisite(prerequisiteId)",
+                    "CREATE INDEX IF NOT EXISTS idx_prerequisite_prerequisiteId ON Prerequisite(prerequisiteId)"),
+
+            // Checksum of each course's data, used by incremental imports to skip unchanged rows.
+            // Existing rows get NULL and are treated as changed on the next incremental import.
+            new Migration(4, "Add checksum column to Course",
+                    "ALTER TABLE Course ADD COLUMN checksum TEXT"),
+
+            // FTS5 full-text index over courseName and department. It is an external-content
+            // index: the text lives only in Course, and the triggers keep the index in sync.
+            new Migration(5, "Add CourseSearch full-text index",
+                    "CREATE VIRTUAL TABLE CourseSearch USING fts5("
+                            + " courseName, department,"
+                            + " content='Course', content_rowid='rowid',"
+                            + " tokenize='unicode61 remove_diacritics 2'"
+                            + ")",
+                    "CREATE TRIGGER course_search_insert AFTER INSERT ON Course BEGIN"
+                            + " INSERT INTO CourseSearch(rowid, courseName, department)"
+                            + " VALUES (new.rowid, new.courseName, new.department);"
+                            + " END",
+                    "CREATE TRIGGER course_search_delete AFTER DELETE ON Course BEGIN"
+                            + " INSERT INTO CourseSearch(CourseSearch, rowid, courseName, department)"
+                            + " VALUES ('delete', old.rowid, old.courseName, old.department);"
+                            + " END",
+                    "CREATE TRIGGER course_search_update AFTER UPDATE OF courseName, department ON Course BEGIN"
+                            + " INSERT INTO CourseSearch(CourseSearch, rowid, courseName, department)"
+                            + " VALUES ('delete', old.rowid, old.courseName, old.department);"
+                            + " INSERT INTO CourseSearch(rowid, courseName, department)"
+                            + " VALUES (new.rowid, new.courseName, new.department);"
+                            + " END",
+                    "INSERT INTO CourseSearch(CourseSearch) VALUES ('rebuild')"),
+
+            // Secondary indexes for filtering by department, credits, or both.
+            // (department, credits) also serves department-only lookups through its prefix.
+            new Migration(6, "Add indexes on Course(department, credits) and Course(credits)",
+                    "CREATE INDEX IF NOT EXISTS idx_course_department_credits ON Course(department, credits)",
+                    "CREATE INDEX IF NOT EXISTS idx_course_credits ON Course(credits)"),
+
+            // Change log for in-process replicas: every write to Course or Prerequisite appends
+            // the course ID in the same transaction. AUTOINCREMENT keeps sequence numbers from
+            // ever being reused after old entries are compacted away.
+            new Migration(7, "Add CourseChange log and compaction watermark",
+                    "CREATE TABLE CourseChange ("
+                            + " seq INTEGER PRIMARY KEY AUTOINCREMENT,"
+                            + " courseId TEXT NOT NULL"
+                            + ")",
+                    "CREATE INDEX idx_coursechange_courseId ON CourseChange(courseId, seq)",
+                    "CREATE TABLE CourseChangeCompaction ("
+                            + " id INTEGER PRIMARY KEY CHECK (id = 1),"
+                            + " compactedThrough INTEGER NOT NULL"  // Positions before this must resync
+                            + ")",
+                    "INSERT INTO CourseChangeCompaction(id, compactedThrough) VALUES (1, 0)",
+                    "CREATE TRIGGER course_change_insert AFTER INSERT ON Course BEGIN"
+                            + " INSERT INTO CourseChange(courseId) VALUES (new.courseId);"
+                            + " END",
+                    "CREATE TRIGGER course_change_update AFTER UPDATE ON Course BEGIN"
+                            + " INSERT INTO CourseChange(courseId) VALUES (old.courseId);"
+                            + " INSERT INTO CourseChange(courseId) SELECT new.courseId WHERE new.courseId <> old.courseId;"
+                            + " END",
+                    "CREATE TRIGGER course_change_delete AFTER DELETE ON Course BEGIN"
+                            + " INSERT INTO CourseChange(courseId) VALUES (old.courseId);"
+                            + " END",
+                    "CREATE TRIGGER prerequisite_change_insert AFTER INSERT ON Prerequisite BEGIN"
+                            + " INSERT INTO CourseChange(courseId) VALUES (new.courseId);"
+                            + " END",
+                    "CREATE TRIGGER prerequisite_change_delete AFTER DELETE ON Prerequisite BEGIN"
+                            + " INSERT INTO CourseChange(courseId) VALUES (old.courseId);"
+                            + " END")
+    );
+
+    private SchemaMigrations() {
+        // Static methods only
+    }
+
+    /**
+     * Brings the database up to the latest schema version.
+     * Each pending migration and its schema_version row are committed together,
+     * so a failed migration leaves the database at the previous version.
+     *
+     * Time complexity: O(k) statements for k pending migrations, plus the cost of any table rebuilds.
+     *
+     * @param conn A connection to the database to migrate.
+     * @return The schema version after migrating.
+     * @throws SQLException if a migration fails; it is rolled back before the exception is thrown.
+     */
+    public static int migrate(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS schema_version ("
+                    + " version INTEGER PRIMARY KEY,"
+                    + " description TEXT NOT NULL,"
+                    + " appliedAt TEXT NOT NULL DEFAULT CURRENT_TIMESTAMP"
+                    + ")");
+        }
+
+        int current = currentVersion(conn);
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            for (Migration migration : MIGRATIONS) {
+                if (migration.version <= current) {
+                    continue;
+                }
+                try (Statement stmt = conn.createStatement()) {
+                    for (String sql : migration.statements) {
+                        stmt.execute(sql);
+                    }
+                }
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "INSERT INTO schema_version(version, description) VALUES(?, ?)")) {
+                    pstmt.setInt(1, migration.version);
+                    pstmt.setString(2, migration.description);
+                    pstmt.executeUpdate();
+                }
+                conn.commit();
+                current = migration.version;
+                System.out.println("Applied schema migration " + migration.version + ": " + migration.description);
+            }
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+        return current;
+    }
+
+    /**
+     * @return The highest applied schema version, or 0 for a new database.
+     */
+    public static int currentVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+}
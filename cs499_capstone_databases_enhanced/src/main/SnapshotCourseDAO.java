@@ -0,0 +1,165 @@
+package main;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * CourseDAO for read-heavy use (such as an advising kiosk) that serves reads from an
+ * immutable in-memory CatalogSnapshot instead of SQLite.
+ * The full catalog is loaded once at construction. Reads only dereference the current
+ * snapshot, so they never lock and never wait for writers. Writes still go to SQLite
+ * first; once committed, the changed course is re-read and a new snapshot is published
+ * atomically, so a reader sees either the whole update or none of it.
+ * If re-reading after a write fails, the snapshot is marked stale and the next read reloads
+ * the whole catalog before answering; until a reload succeeds, reads serve the last snapshot.
+ *
+ * Queries that are not served from the snapshot (search, filters, prerequisite closure)
+ * still run against the database.
+ */
+public class SnapshotCourseDAO extends CourseDAO {
+
+    private final AtomicReference<CatalogSnapshot> snapshot = new AtomicReference<>();
+
+    // Set when a refresh after a write failed, so the snapshot may be missing that write
+    private volatile boolean stale;
+
+    /**
+     * Loads the current catalog into memory.
+     *
+     * @throws SQLException if the catalog cannot be read.
+     */
+    public SnapshotCourseDAO() throws SQLException {
+        snapshot.set(loadCatalog());
+    }
+
+    /**
+     * Reads the whole catalog from the database into a new snapshot.
+     * Goes through CourseDAO.forEachCourse directly because the overridden read methods serve the snapshot.
+     */
+    private CatalogSnapshot loadCatalog() throws SQLException {
+        List<Course> courses = new ArrayList<>();
+        try (Connection conn = DatabaseManager.connect()) {
+            forEachCourse(conn, new SymbolTable(), courses::add);
+        }
+        return CatalogSnapshot.of(courses);
+    }
+
+    /**
+     * @return The snapshot currently published to readers.
+     */
+    public CatalogSnapshot getSnapshot() {
+        return current();
+    }
+
+    /**
+     * @return The snapshot to serve, reloaded first if a refresh after a write failed.
+     */
+    private CatalogSnapshot current() {
+        if (stale) {
+            reloadStale();
+        }
+        return snapshot.get();
+    }
+
+    /**
+     * Reloads the whole catalog after a failed refresh. If the reload fails too, the
+     * snapshot stays stale and the next read tries again.
+     */
+    private synchronized void reloadStale() {
+        if (stale) {
+            catalogChanged();
+        }
+    }
+
+    /**
+     * Time complexity: O(1), served from memory.
+     */
+    @Override
+    public Course findCourseById(String courseId) {
+        return current().get(courseId);
+    }
+
+    /**
+     * Time complexity: O(n) to copy the snapshot's course list.
+     */
+    @Override
+    public List<Course> getAllCourses() {
+        return new ArrayList<>(current().getCourses());
+    }
+
+    @Override
+    public void forEachCourse(Consumer<Course> action) {
+        current().getCourses().forEach(action);
+    }
+
+    @Override
+    public List<Course> listCourses(String afterCourseId, int limit) {
+        return new ArrayList<>(current().page(afterCourseId, limit));
+    }
+
+    @Override
+    public List<String> getPrerequisites(String courseId) {
+        Course course = current().get(courseId);
+        return course == null ? new ArrayList<>() : new ArrayList<>(course.getPrerequisites());
+    }
+
+    /**
+     * Re-reads one course from the database after a write and publishes a new snapshot.
+     * Publishing is serialized so concurrent writers cannot overwrite each other's snapshots.
+     */
+    @Override
+    protected synchronized void courseChanged(String courseId) {
+        try {
+            Course course = super.findCourseById(courseId);
+            CatalogSnapshot current = snapshot.get();
+            snapshot.set(course == null ? current.withoutCourse(courseId) : current.withCourse(course));
+        } catch (SQLException e) {
+            // The snapshot no longer matches the database; the next read reloads it
+            stale = true;
+            System.err.println("Error refreshing course " + courseId + " in the catalog snapshot: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Re-reads several changed courses in one query and publishes a single new snapshot for all of them.
+     */
+    @Override
+    protected synchronized void coursesChanged(Collection<String> courseIds) {
+        if (courseIds.isEmpty()) {
+            return;
+        }
+        try (Connection conn = DatabaseManager.connect()) {
+            List<Course> upserts = new ArrayList<>();
+            readCoursesById(courseIds, conn, upserts::add);
+            Set<String> removals = new HashSet<>(courseIds);
+            for (Course course : upserts) {
+                removals.remove(course.getCourseId());
+            }
+            snapshot.set(snapshot.get().withChanges(upserts, removals));
+        } catch (SQLException e) {
+            stale = true;
+            System.err.println("Error refreshing " + courseIds.size() + " courses in the catalog snapshot: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reloads the whole catalog after a bulk write and publishes it as a new snapshot.
+     */
+    @Override
+    protected synchronized void catalogChanged() {
+        try {
+            snapshot.set(loadCatalog());
+            stale = false;
+        } catch (SQLException e) {
+            stale = true;
+            System.err.println("Error reloading the catalog snapshot: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package main;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Named SQLite performance presets applied to every pooled connection.
+ * All presets use write-ahead logging (WAL) so readers are not blocked by a writer;
+ * they differ in how much durability they trade for write and read speed.
+ *
+ * The preset is chosen with the advising.sqlite.profile system property,
+ * e.g. -Dadvising.sqlite.profile=bulk-load. The default is "balanced".
+ */
+public enum SqliteProfile {
+
+    /**
+     * Every commit is synced to disk; survives power loss. Default cache, no memory mapping.
+     */
+    DURABLE("durable", "FULL", 0L, -2_000, "DEFAULT"),
+
+    /**
+     * WAL with synchronous=NORMAL: commits are atomic and survive an application crash,
+     * but the last transactions may be lost on power failure. Larger cache and memory-mapped reads.
+     */
+    BALANCED("balanced", "NORMAL", 256L * 1024 * 1024, -16_000, "MEMORY"),
+
+    /**
+     * No syncing at all; only for (re)building a database from a CSV that can be imported again.
+     * A crash or power failure during the import can corrupt the database.
+     */
+    BULK_LOAD("bulk-load", "OFF", 256L * 1024 * 1024, -64_000, "MEMORY");
+
+    // How long a connection waits for a lock held by another writer before failing
+    private static final int BUSY_TIMEOUT_MS = 5_000;
+
+    private final String name;
+    private final String synchronous;
+    private final long mmapSize;
+    private final int cacheSize;    // Negative values are in KiB, as in PRAGMA cache_size
+    private final String tempStore;
+
+    SqliteProfile(String name, String synchronous, long mmapSize, int cacheSize, String tempStore) {
+        this.name = name;
+        this.synchronous = synchronous;
+        this.mmapSize = mmapSize;
+        this.cacheSize = cacheSize;
+        this.tempStore = tempStore;
+    }
+
+    /**
+     * Applies the preset's PRAGMA settings to a newly opened connection.
+     *
+     * @param conn The connection to configure.
+     * @throws SQLException if a PRAGMA fails.
+     */
+    public void apply(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA journal_mode = WAL");
+            stmt.execute("PRAGMA synchronous = " + synchronous);
+            stmt.execute("PRAGMA mmap_size = " + mmapSize);
+            stmt.execute("PRAGMA cache_size = " + cacheSize);
+            stmt.execute("PRAGMA temp_store = " + tempStore);
+            stmt.execute("PRAGMA busy_timeout = " + BUSY_TIMEOUT_MS);
+        }
+    }
+
+    /**
+     * @return The preset name used in the advising.sqlite.profile property.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Looks up a preset by name, ignoring case and accepting underscores for hyphens.
+     *
+     * @param name The preset name, e.g. "bulk-load".
+     * @return The matching preset.
+     * @throws IllegalArgumentException if no preset has that name.
+     */
+    public static SqliteProfile fromName(String name) {
+        String normalized = name.trim().toLowerCase().replace('_', '-');
+        for (SqliteProfile profile : values()) {
+            if (profile.name.equals(normalized)) {
+                return profile;
+            }
+        }
+        throw new IllegalArgumentException("Unknown SQLite profile: " + name
+                + " (expected durable, balanced or bulk-load)");
+    }
+
+    /**
+     * @return The preset selected by the advising.sqlite.profile system property, or BALANCED.
+     */
+    public static SqliteProfile fromSystemProperty() {
+        return fromName(System.getProperty("advising.sqlite.profile", BALANCED.name));
+    }
+}
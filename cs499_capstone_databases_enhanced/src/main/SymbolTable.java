@@ -0,0 +1,216 @@
+package main;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Canonicalizes the strings that repeat throughout a catalog, such as department names and the
+ * course IDs used as prerequisites. Each distinct string gets a dense int handle (0, 1, 2, ...)
+ * and one canonical String, so every course that names "Computer Science" or "CSCI100" shares
+ * a single copy instead of holding its own.
+ *
+ * Strings can be looked up straight from a CharSequence, such as a CsvReader field, so a string
+ * that is already in the table costs no allocation at all.
+ *
+ * A table is meant to live for one load or query and then be dropped, unlike String.intern(),
+ * whose pool lives as long as the JVM. It is thread-safe, so the chunks of a parallel load can
+ * share one: the table is split into stripes by hash code, each with its own lock, so threads
+ * looking up different strings rarely wait for each other.
+ */
+public class SymbolTable {
+
+    private static final int DEFAULT_CAPACITY = 64;
+    // Number of stripes, 2^STRIPE_BITS; a stripe is chosen by the top bits of the spread hash code
+    private static final int STRIPE_BITS = 4;
+    private static final int MIN_STRIPE_CAPACITY = 8;
+    // The canonical strings are also kept by handle, in pages of 2^PAGE_BITS
+    private static final int PAGE_BITS = 10;
+    private static final int PAGE_MASK = (1 << PAGE_BITS) - 1;
+
+    /**
+     * The strings whose hash codes select one stripe, guarded by the stripe's monitor.
+     */
+    private static class Stripe {
+        // Open-addressing hash table of entry + 1 (0 marks an empty slot); its length is a power of two
+        int[] slots;
+        // Canonical string, hash code and handle by entry
+        String[] symbols;
+        int[] hashes;
+        int[] handles;
+        int size;
+
+        Stripe(int capacity) {
+            slots = new int[Integer.highestOneBit(capacity * 2 - 1) * 2];
+            symbols = new String[capacity];
+            hashes = new int[capacity];
+            handles = new int[capacity];
+        }
+
+        /**
+         * Adds a string in an empty slot found by the caller's probe.
+         */
+        void add(int slot, String symbol, int hash, int handle) {
+            if (size == symbols.length) {
+                symbols = Arrays.copyOf(symbols, size * 2);
+                hashes = Arrays.copyOf(hashes, size * 2);
+                handles = Arrays.copyOf(handles, size * 2);
+            }
+            int entry = size++;
+            symbols[entry] = symbol;
+            hashes[entry] = hash;
+            handles[entry] = handle;
+            slots[slot] = entry + 1;
+            if (size * 2 > slots.length) {
+                rehash();
+            }
+        }
+
+        private void rehash() {
+            slots = new int[slots.length * 2];
+            int mask = slots.length - 1;
+            for (int entry = 0; entry < size; entry++) {
+                int slot = spread(hashes[entry]) & mask;
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = entry + 1;
+            }
+        }
+    }
+
+    private final Stripe[] stripes = new Stripe[1 << STRIPE_BITS];
+    private final AtomicInteger size = new AtomicInteger();
+    // Canonical string by handle; pages are never moved, so growing the directory copies only the page references
+    private volatile String[][] pages = new String[0][];
+
+    public SymbolTable() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize  How many distinct strings the table is expected to hold.
+     */
+    public SymbolTable(int expectedSize) {
+        int capacity = Math.max(MIN_STRIPE_CAPACITY, Math.max(DEFAULT_CAPACITY, expectedSize) >> STRIPE_BITS);
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe(capacity);
+        }
+    }
+
+    /**
+     * Returns the handle of a string, adding it to the table if it is new.
+     *
+     * Time complexity: O(k) expected, for a string of k characters.
+     */
+    public int handle(CharSequence text) {
+        return handle(text, 0, text.length());
+    }
+
+    /**
+     * Returns the handle of the characters text[start, end), adding them to the table if they are new.
+     *
+     * Time complexity: O(end - start) expected.
+     */
+    public int handle(CharSequence text, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + text.charAt(i);  // Same as String.hashCode()
+        }
+
+        int spread = spread(hash);
+        Stripe stripe = stripes[spread >>> (32 - STRIPE_BITS)];
+        synchronized (stripe) {
+            int mask = stripe.slots.length - 1;
+            int slot = spread & mask;
+            while (stripe.slots[slot] != 0) {
+                int entry = stripe.slots[slot] - 1;
+                if (stripe.hashes[entry] == hash && matches(stripe.symbols[entry], text, start, end)) {
+                    return stripe.handles[entry];
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            // New string
+            String symbol = text.subSequence(start, end).toString();
+            int handle = size.getAndIncrement();
+            page(handle)[handle & PAGE_MASK] = symbol;
+            stripe.add(slot, symbol, hash, handle);
+            return handle;
+        }
+    }
+
+    /**
+     * Returns the canonical copy of a string, adding it to the table if it is new.
+     * Null is returned as is.
+     */
+    public String intern(CharSequence text) {
+        return text == null ? null : symbol(handle(text, 0, text.length()));
+    }
+
+    /**
+     * Returns the canonical copy of the characters text[start, end), adding them to the table if they are new.
+     */
+    public String intern(CharSequence text, int start, int end) {
+        return symbol(handle(text, start, end));
+    }
+
+    /**
+     * @return The string with the given handle. A handle can be looked up once handle() has returned it.
+     * @throws IndexOutOfBoundsException if no string has that handle.
+     */
+    public String symbol(int handle) {
+        if (handle < 0 || handle >= size.get()) {
+            throw new IndexOutOfBoundsException("No symbol with handle " + handle);
+        }
+        return pages[handle >>> PAGE_BITS][handle & PAGE_MASK];
+    }
+
+    /**
+     * @return The number of distinct strings; handles run from 0 to size() - 1.
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Returns the page that holds a handle, adding pages to the directory if it does not reach that far yet.
+     */
+    private String[] page(int handle) {
+        int index = handle >>> PAGE_BITS;
+        String[][] current = pages;
+        if (index < current.length) {
+            return current[index];
+        }
+        synchronized (stripes) {
+            current = pages;
+            if (index >= current.length) {
+                String[][] grown = Arrays.copyOf(current, index + 1);
+                for (int i = current.length; i < grown.length; i++) {
+                    grown[i] = new String[PAGE_MASK + 1];
+                }
+                pages = grown;
+                current = grown;
+            }
+            return current[index];
+        }
+    }
+
+    private static boolean matches(String symbol, CharSequence text, int start, int end) {
+        if (symbol.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < symbol.length(); i++) {
+            if (symbol.charAt(i) != text.charAt(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Mixes the high bits of a hash code into the low bits used to pick a slot.
+     */
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,213 @@
+package main;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Optional write-behind mode for course mutations.
+ * Inserts, updates and removals are placed on a bounded queue and applied by a single
+ * writer thread, which groups everything that arrives within a short window (or up to
+ * a maximum batch size) into one transaction. Many small edits then share one commit
+ * instead of paying for a commit each.
+ *
+ * Each call returns a future that completes once the transaction holding the mutation
+ * has been committed, i.e. as durable as the selected SqliteProfile makes any commit.
+ * A mutation that fails (e.g. a duplicate course ID) fails only its own future; the
+ * rest of the group is still committed. When the queue is full, callers block until
+ * the writer has caught up.
+ */
+public class WriteBehindCourseWriter implements AutoCloseable {
+
+    /**
+     * A queued mutation and the future of its caller.
+     */
+    private static class Mutation {
+        final String courseId;
+        final Write write;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        Mutation(String courseId, Write write) {
+            this.courseId = courseId;
+            this.write = write;
+        }
+    }
+
+    /**
+     * A write performed on the writer's connection inside the group transaction.
+     */
+    private interface Write {
+        void apply(Connection conn) throws SQLException;
+    }
+
+    private final CourseDAO courseDAO;
+    private final BlockingQueue<Mutation> queue;
+    private final int maxBatchSize;
+    private final long maxDelayMillis;
+    private final Thread writerThread;
+    private volatile boolean closed;
+    // Callers hold the read lock from checking closed until their mutation is queued, and close()
+    // sets closed under the write lock, so once closed is set nothing more can reach the queue
+    private final ReadWriteLock gate = new ReentrantReadWriteLock();
+
+    /**
+     * Creates the writer and starts its thread.
+     *
+     * @param courseDAO       The DAO whose write logic is used and whose change hooks are called.
+     * @param queueCapacity   Maximum number of mutations waiting to be written.
+     * @param maxBatchSize    Maximum number of mutations committed in one transaction.
+     * @param maxDelayMillis  How long the writer waits for more mutations after the first one of a group.
+     */
+    public WriteBehindCourseWriter(CourseDAO courseDAO, int queueCapacity, int maxBatchSize, long maxDelayMillis) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1: " + maxBatchSize);
+        }
+        this.courseDAO = courseDAO;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayMillis = maxDelayMillis;
+        this.writerThread = new Thread(this::runWriter, "course-write-behind");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Queues a course insert, blocking while the queue is full.
+     */
+    public CompletableFuture<Void> insertCourse(Course course) throws InterruptedException {
+        return enqueue(new Mutation(course.getCourseId(), conn -> courseDAO.insertCourse(course, conn)));
+    }
+
+    /**
+     * Queues a course update, blocking while the queue is full.
+     */
+    public CompletableFuture<Void> updateCourse(Course course) throws InterruptedException {
+        return enqueue(new Mutation(course.getCourseId(), conn -> courseDAO.updateCourse(course, conn)));
+    }
+
+    /**
+     * Queues a course removal, blocking while the queue is full.
+     */
+    public CompletableFuture<Void> removeCourse(String courseId) throws InterruptedException {
+        return enqueue(new Mutation(courseId, conn -> courseDAO.removeCourse(courseId, conn)));
+    }
+
+    private CompletableFuture<Void> enqueue(Mutation mutation) throws InterruptedException {
+        gate.readLock().lockInterruptibly();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Write-behind writer has been closed.");
+            }
+            queue.put(mutation);  // Backpressure: waits for space when the queue is full
+        } finally {
+            gate.readLock().unlock();
+        }
+        return mutation.done;
+    }
+
+    /**
+     * @return The number of mutations waiting to be written.
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Writer loop: waits for a mutation, gathers a group, and commits it.
+     */
+    private void runWriter() {
+        List<Mutation> group = new ArrayList<>(maxBatchSize);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                Mutation first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+
+                // Collect more mutations until the group is full or the delay has passed
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+                while (group.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Mutation next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    group.add(next);
+                }
+                commitGroup(group);
+            } catch (InterruptedException e) {
+                // Not interrupted by close(); keep draining until the queue is empty
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    /**
+     * Applies a group of mutations in one transaction. Each mutation runs under its own
+     * savepoint so a failing one is rolled back without affecting the others.
+     */
+    private void commitGroup(List<Mutation> group) {
+        List<Mutation> applied = new ArrayList<>(group.size());
+        DaoMetrics.Operation op = DaoMetrics.begin("writeBehindCommit");
+        try (op; Connection conn = DatabaseManager.connect()) {
+            conn.setAutoCommit(false);
+            for (Mutation mutation : group) {
+                Savepoint savepoint = conn.setSavepoint();
+                try {
+                    mutation.write.apply(conn);
+                    conn.releaseSavepoint(savepoint);
+                    applied.add(mutation);
+                } catch (SQLException e) {
+                    conn.rollback(savepoint);
+                    mutation.done.completeExceptionally(e);
+                }
+            }
+            conn.commit();
+            for (Mutation mutation : applied) {
+                mutation.done.complete(null);
+            }
+        } catch (SQLException | RuntimeException e) {
+            // The group transaction could not be committed: nothing in it is durable
+            for (Mutation mutation : group) {
+                mutation.done.completeExceptionally(e);
+            }
+        } finally {
+            for (Mutation mutation : group) {
+                courseDAO.courseChanged(mutation.courseId);
+            }
+        }
+    }
+
+    /**
+     * Stops accepting mutations, writes everything still queued, and waits for the writer to finish.
+     * If the calling thread is interrupted, it stops waiting and its interrupt status is kept; the
+     * writer still writes what is queued.
+     */
+    @Override
+    public void close() {
+        // Waits for callers still putting a mutation on the queue, so the writer cannot stop
+        // while one is on its way in
+        gate.writeLock().lock();
+        try {
+            closed = true;
+        } finally {
+            gate.writeLock().unlock();
+        }
+        // The writer notices the flag within one poll interval and drains the queue first
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -5,6 +5,13 @@
  * @author jkarl
  *
  */
+// The SQLite driver is an automatic module: its jar has no module-info
+@SuppressWarnings("requires-automatic")
 module cs499_capstone {
-	requires java.sql;
+	// The exported DAO API takes and returns java.sql types
+	requires transitive java.sql;
+	requires java.management;
+	requires org.xerial.sqlitejdbc;
+
+	exports main;
 }
\ No newline at end of file
@@ -0,0 +1,196 @@
+package main;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Timeouts, cancellation and the concurrency limit of AsyncCourseDAO.
+ */
+class AsyncCourseDAOTest {
+
+    // Lookups of this course ID wait until the test releases them
+    private static final String BLOCKED = "BLOCKED";
+
+    /**
+     * A DAO that holds lookups of BLOCKED until released, and records every lookup that ran.
+     */
+    private static class GatedCourseDAO extends CourseDAO {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Set<String> ran = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public Course findCourseById(String courseId) throws SQLException {
+            ran.add(courseId);
+            if (courseId.equals(BLOCKED)) {
+                started.countDown();
+                try {
+                    if (!release.await(10, TimeUnit.SECONDS)) {
+                        throw new SQLException("Blocked lookup was never released");
+                    }
+                } catch (InterruptedException e) {
+                    throw new SQLException(e);
+                }
+            }
+            return super.findCourseById(courseId);
+        }
+    }
+
+    @BeforeAll
+    static void openDatabase() throws IOException, SQLException {
+        TestDatabase.open();
+        new CourseDAO().insertCourse(new Course("CSCI100", "Introduction to Programming", 3, "Computer Science", List.of()));
+    }
+
+    @AfterAll
+    static void closeDatabase() throws IOException {
+        TestDatabase.close();
+    }
+
+    private static AsyncCourseDAO asyncDAO(CourseDAO courseDAO, int maxConcurrency, long timeoutMillis) {
+        return new AsyncCourseDAO(courseDAO, Executors.newFixedThreadPool(4), maxConcurrency, timeoutMillis);
+    }
+
+    /**
+     * A pool that waits before taking each task, so the lookups of one batch are submitted,
+     * and start their timeouts, one after another.
+     */
+    private static ExecutorService slowSubmitExecutor(long delayMillis) {
+        return new ThreadPoolExecutor(4, 4, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>()) {
+            @Override
+            public void execute(Runnable command) {
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.execute(command);
+            }
+        };
+    }
+
+    private static void awaitStarted(GatedCourseDAO courseDAO) throws InterruptedException {
+        assertTrue(courseDAO.started.await(5, TimeUnit.SECONDS), "The blocked lookup did not start");
+    }
+
+    /**
+     * Asserts that a lookup completes, which needs a free permit, and finds the course.
+     */
+    private static void assertLookupCompletes(AsyncCourseDAO async) throws Exception {
+        Course course = async.findCourseById("CSCI100").get(5, TimeUnit.SECONDS);
+        assertEquals("CSCI100", course.getCourseId());
+    }
+
+    @Test
+    void slowQueryTimesOut() throws Exception {
+        GatedCourseDAO courseDAO = new GatedCourseDAO();
+        try (AsyncCourseDAO async = asyncDAO(courseDAO, 1, 200)) {
+            CompletableFuture<Course> running = async.findCourseById(BLOCKED);
+            awaitStarted(courseDAO);
+            CompletableFuture<Course> queued = async.findCourseById("QUEUED");
+
+            ExecutionException e = assertThrows(ExecutionException.class, () -> running.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(TimeoutException.class, e.getCause());
+            e = assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(TimeoutException.class, e.getCause());
+
+            // The running query finishes and is discarded; the queued one never runs
+            courseDAO.release.countDown();
+            assertLookupCompletes(async);
+            assertTrue(running.isCompletedExceptionally());
+            assertFalse(courseDAO.ran.contains("QUEUED"));
+        }
+    }
+
+    @Test
+    void batchLookupTimeoutCancelsTheRest() throws Exception {
+        GatedCourseDAO courseDAO = new GatedCourseDAO();
+        // The blocked lookup times out while the lookups submitted after it still have time left
+        try (AsyncCourseDAO async = new AsyncCourseDAO(courseDAO, slowSubmitExecutor(100), 1, 250)) {
+            List<String> courseIds = new ArrayList<>();
+            courseIds.add(BLOCKED);
+            for (int i = 0; i < 10; i++) {
+                courseIds.add("QUEUED" + i);
+            }
+            CompletableFuture<List<Course>> batch = async.findCoursesById(courseIds);
+
+            // The lookups queued behind the timed-out one were cancelled, so none of them runs
+            courseDAO.release.countDown();
+            assertLookupCompletes(async);
+            for (int i = 0; i < 10; i++) {
+                assertFalse(courseDAO.ran.contains("QUEUED" + i), "QUEUED" + i + " ran after the batch timed out");
+            }
+            ExecutionException e = assertThrows(ExecutionException.class, () -> batch.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(TimeoutException.class, e.getCause());
+        }
+    }
+
+    @Test
+    void cancelledQueuedQueryNeverRuns() throws Exception {
+        GatedCourseDAO courseDAO = new GatedCourseDAO();
+        try (AsyncCourseDAO async = asyncDAO(courseDAO, 1, 0)) {
+            CompletableFuture<Course> running = async.findCourseById(BLOCKED);
+            awaitStarted(courseDAO);
+            CompletableFuture<Course> queued = async.findCourseById("QUEUED");
+
+            assertTrue(queued.cancel(false));
+            assertThrows(CancellationException.class, () -> queued.get(5, TimeUnit.SECONDS));
+
+            courseDAO.release.countDown();
+            assertEquals(null, running.get(5, TimeUnit.SECONDS));
+            // With one permit, this lookup can only run after the cancelled one has given its turn back
+            assertLookupCompletes(async);
+            assertFalse(courseDAO.ran.contains("QUEUED"));
+        }
+    }
+
+    @Test
+    void cancellationReleasesPermits() throws Exception {
+        GatedCourseDAO courseDAO = new GatedCourseDAO();
+        try (AsyncCourseDAO async = asyncDAO(courseDAO, 1, 0)) {
+            CompletableFuture<Course> running = async.findCourseById(BLOCKED);
+            awaitStarted(courseDAO);
+            List<CompletableFuture<Course>> queued = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                queued.add(async.findCourseById("QUEUED" + i));
+            }
+
+            // Cancel the running query and everything waiting behind it
+            assertTrue(running.cancel(false));
+            queued.forEach(lookup -> assertTrue(lookup.cancel(false)));
+            courseDAO.release.countDown();
+
+            // Each cancelled call gave its permit back, so the only permit is free again
+            for (int i = 0; i < 3; i++) {
+                assertLookupCompletes(async);
+            }
+            for (int i = 0; i < 10; i++) {
+                assertFalse(courseDAO.ran.contains("QUEUED" + i));
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package main;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Wall time and query count of a full catalog fetch at 10k and 100k courses: the single
+ * LEFT JOIN in CourseDAO.getAllCourses against the former one-query-per-course fetch.
+ * Every statement goes through the pool's statement cache, so the cache's hits plus misses
+ * are the number of queries run. JMH sums the "queries" counter over the measurement iterations,
+ * each of which is one fetch, so divide it by the iteration count for queries per fetch.
+ *
+ * mvn -B -Pbenchmark test-compile exec:exec -Djmh.args=CatalogFetchBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CatalogFetchBenchmark {
+
+    @Param({"10000", "100000"})
+    public int courses;
+
+    private CourseDAO courseDAO;
+
+    /**
+     * Queries run by the fetch of one iteration.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Queries {
+        public long queries;
+    }
+
+    @Setup(Level.Trial)
+    public void createCatalog() throws IOException, SQLException {
+        TestDatabase.open();
+        courseDAO = new CourseDAO();
+        // Two distinct prerequisites per course, taken from earlier courses, as in a real catalog
+        List<Course> catalog = new ArrayList<>(courses);
+        for (int i = 0; i < courses; i++) {
+            List<String> prerequisites = i < 2 ? List.of() : List.of(courseId(i / 3), courseId(i - 1));
+            catalog.add(new Course(courseId(i), "Course " + i, 3, "Computer Science", prerequisites));
+        }
+        BulkInsertResult result = courseDAO.insertCourses(catalog);
+        if (result.getInserted() != courses) {
+            throw new IllegalStateException("Catalog setup failed: " + result.getErrors());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteCatalog() throws IOException {
+        TestDatabase.close();
+    }
+
+    private static String courseId(int i) {
+        return String.format("C%06d", i);
+    }
+
+    private static long queryCount() {
+        ConnectionPool pool = DatabaseManager.getPool();
+        return pool.getStatementCacheHits() + pool.getStatementCacheMisses();
+    }
+
+    @Benchmark
+    public List<Course> joinedFetch(Queries queries) throws SQLException {
+        long before = queryCount();
+        List<Course> catalog = courseDAO.getAllCourses();
+        queries.queries += queryCount() - before;
+        return catalog;
+    }
+
+    /**
+     * The fetch getAllCourses replaced: read the courses, then query each course's prerequisites.
+     */
+    @Benchmark
+    public List<Course> perCourseFetch(Queries queries) throws SQLException {
+        long before = queryCount();
+        List<Course> catalog = new ArrayList<>();
+        try (Connection conn = DatabaseManager.connect();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "SELECT courseId, courseName, credits, department FROM Course ORDER BY courseId");
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                String courseId = rs.getString("courseId");
+                catalog.add(new Course(courseId, rs.getString("courseName"), rs.getInt("credits"),
+                        rs.getString("department"), courseDAO.getPrerequisites(courseId)));
+            }
+        }
+        queries.queries += queryCount() - before;
+        return catalog;
+    }
+}
@@ -0,0 +1,116 @@
+package main;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Heap retained by the whole catalog once loaded into memory, with and without the load's
+ * SymbolTable. getAllCourses shares one String per course ID across the course and every
+ * prerequisite list that names it; collecting forEachCourse keeps a String per occurrence
+ * (departments are interned on both paths). The "retainedMB" counter is the heap in use after
+ * a full GC with the courses held, minus the heap in use before the load.
+ *
+ * mvn -B -Pbenchmark test-compile exec:exec -Djmh.args=CatalogHeapBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class CatalogHeapBenchmark {
+
+    @Param({"1000000"})
+    public int courses;
+
+    private CourseDAO courseDAO;
+
+    /**
+     * Heap retained by the courses of the one measured load.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Heap {
+        public double retainedMB;
+    }
+
+    @Setup(Level.Trial)
+    public void createCatalog() throws IOException, SQLException {
+        TestDatabase.open();
+        courseDAO = new CourseDAO();
+        // 40 departments and 0-3 prerequisites per course, taken from earlier courses
+        List<Course> catalog = new ArrayList<>(courses);
+        for (int i = 0; i < courses; i++) {
+            List<String> prerequisites = new ArrayList<>();
+            for (int p = 1; p <= i % 4 && p <= i; p++) {
+                prerequisites.add(courseId(i - 1 - p * (1 + i % 97) % i));
+            }
+            catalog.add(new Course(courseId(i), "Course " + i, 1 + i % 4, "Department " + i % 40,
+                    prerequisites.stream().distinct().toList()));
+        }
+        BulkInsertResult result = courseDAO.insertCourses(catalog);
+        if (result.getInserted() != courses) {
+            throw new IllegalStateException("Catalog setup failed: " + result.getErrors());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteCatalog() throws IOException {
+        TestDatabase.close();
+    }
+
+    private static String courseId(int i) {
+        return String.format("C%07d", i);
+    }
+
+    private static long usedHeapAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static void recordRetained(Heap heap, long before, List<Course> loaded) {
+        heap.retainedMB = (usedHeapAfterGc() - before) / (1024.0 * 1024.0);
+        Reference.reachabilityFence(loaded);
+    }
+
+    @Benchmark
+    public int internedLoad(Heap heap) throws SQLException {
+        long before = usedHeapAfterGc();
+        List<Course> loaded = courseDAO.getAllCourses();
+        recordRetained(heap, before, loaded);
+        return loaded.size();
+    }
+
+    @Benchmark
+    public int plainLoad(Heap heap) throws SQLException {
+        long before = usedHeapAfterGc();
+        List<Course> loaded = new ArrayList<>();
+        courseDAO.forEachCourse(loaded::add);
+        recordRetained(heap, before, loaded);
+        return loaded.size();
+    }
+}
@@ -0,0 +1,98 @@
+package main;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The indexed finders must search the migration 6 indexes rather than scan the Course table.
+ */
+class CourseQueryPlanTest {
+
+    private static CourseDAO courseDAO;
+
+    @BeforeAll
+    static void openDatabase() throws IOException, SQLException {
+        TestDatabase.open();
+        courseDAO = new CourseDAO();
+        String[] departments = {"Computer Science", "Mathematics", "Physics"};
+        List<Course> courses = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            courses.add(new Course(String.format("C%04d", i), "Course " + i, 1 + i % 5,
+                    departments[i % departments.length], List.of()));
+        }
+        courseDAO.insertCourses(courses);
+    }
+
+    @AfterAll
+    static void closeDatabase() throws IOException {
+        TestDatabase.close();
+    }
+
+    /**
+     * @return The detail column of EXPLAIN QUERY PLAN for the query a finder runs with this filter.
+     */
+    private static List<String> queryPlan(String where) throws SQLException {
+        List<String> plan = new ArrayList<>();
+        try (Connection conn = DatabaseManager.connect();
+             PreparedStatement pstmt = conn.prepareStatement("EXPLAIN QUERY PLAN " + CourseDAO.coursesWhereSql(where));
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                plan.add(rs.getString("detail"));
+            }
+        }
+        return plan;
+    }
+
+    private static void assertSearchesIndex(String index, List<String> plan) {
+        String text = String.join("\n", plan);
+        assertTrue(plan.stream().anyMatch(step -> step.startsWith("SEARCH Course USING INDEX " + index + " ")),
+                "Expected a search of " + index + ":\n" + text);
+        assertFalse(plan.stream().anyMatch(step -> step.startsWith("SCAN Course") || step.startsWith("SCAN c")),
+                "Expected no scan of Course:\n" + text);
+    }
+
+    @Test
+    void findByDepartmentSearchesDepartmentIndex() throws SQLException {
+        assertSearchesIndex("idx_course_department_credits", queryPlan(CourseDAO.BY_DEPARTMENT));
+
+        List<Course> courses = courseDAO.findByDepartment("Mathematics");
+        assertEquals(100, courses.size());
+        assertTrue(courses.stream().allMatch(course -> course.getDepartment().equals("Mathematics")));
+    }
+
+    @Test
+    void findByCreditRangeSearchesCreditsIndex() throws SQLException {
+        assertSearchesIndex("idx_course_credits", queryPlan(CourseDAO.BY_CREDIT_RANGE));
+
+        List<Course> courses = courseDAO.findByCreditRange(2, 3);
+        assertEquals(120, courses.size());
+        assertTrue(courses.stream().allMatch(course -> course.getCredits() >= 2 && course.getCredits() <= 3));
+    }
+
+    @Test
+    void findByDepartmentAndCreditsSearchesOneIndexRange() throws SQLException {
+        List<String> plan = queryPlan(CourseDAO.BY_DEPARTMENT_AND_CREDITS);
+        assertSearchesIndex("idx_course_department_credits", plan);
+        assertTrue(plan.stream().anyMatch(step -> step.contains("(department=? AND credits>? AND credits<?)")),
+                "Expected both columns to bound the index range:\n" + String.join("\n", plan));
+
+        List<Course> courses = courseDAO.findByDepartmentAndCredits("Physics", 4, 5);
+        assertEquals(courses.stream().map(Course::getCourseId).sorted().collect(Collectors.toList()),
+                courses.stream().map(Course::getCourseId).collect(Collectors.toList()));
+        assertEquals(40, courses.size());
+    }
+}
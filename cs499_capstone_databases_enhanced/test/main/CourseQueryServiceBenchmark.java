@@ -0,0 +1,100 @@
+package main;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Lookup throughput of CourseQueryService at 1, 4, 16 and 64 concurrent clients. Each JMH
+ * thread is one client that submits a findCourseById and waits for the answer; the score is
+ * the total number of lookups per second across all clients.
+ *
+ * mvn -B -Pbenchmark test-compile exec:exec -Djmh.args=CourseQueryServiceBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class CourseQueryServiceBenchmark {
+
+    private static final int CATALOG_SIZE = 20_000;
+
+    // More reader threads than pooled connections, so the pool is what bounds concurrent reads
+    private static final int READER_THREADS = 16;
+
+    private CourseQueryService service;
+
+    @Setup(Level.Trial)
+    public void startService() throws IOException, SQLException {
+        TestDatabase.open();
+        CourseDAO courseDAO = new CourseDAO();
+        List<Course> catalog = new ArrayList<>(CATALOG_SIZE);
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            List<String> prerequisites = i == 0 ? List.of() : List.of(courseId(i - 1));
+            catalog.add(new Course(courseId(i), "Course " + i, 3, "Computer Science", prerequisites));
+        }
+        BulkInsertResult result = courseDAO.insertCourses(catalog);
+        if (result.getInserted() != CATALOG_SIZE) {
+            throw new IllegalStateException("Catalog setup failed: " + result.getErrors());
+        }
+        service = new CourseQueryService(courseDAO, READER_THREADS, false);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopService() throws IOException {
+        service.close();
+        TestDatabase.close();
+    }
+
+    private static String courseId(int i) {
+        return String.format("C%06d", i);
+    }
+
+    private Course lookup() throws InterruptedException, ExecutionException {
+        return service.findCourseById(courseId(ThreadLocalRandom.current().nextInt(CATALOG_SIZE))).get();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Course clients01() throws InterruptedException, ExecutionException {
+        return lookup();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Course clients04() throws InterruptedException, ExecutionException {
+        return lookup();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public Course clients16() throws InterruptedException, ExecutionException {
+        return lookup();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public Course clients64() throws InterruptedException, ExecutionException {
+        return lookup();
+    }
+}
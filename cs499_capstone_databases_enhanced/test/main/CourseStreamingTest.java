@@ -0,0 +1,76 @@
+package main;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * CourseDAO.forEachCourse must stream the catalog without holding on to the courses it has passed on.
+ */
+class CourseStreamingTest {
+
+    private static final int COURSES = 200_000;
+
+    // Growth allowed while streaming; keeping every course ID would take several times this
+    private static final long MAX_GROWTH_BYTES = 4L * 1024 * 1024;
+
+    private static CourseDAO courseDAO;
+
+    @BeforeAll
+    static void createCatalog() throws IOException, SQLException {
+        TestDatabase.open();
+        courseDAO = new CourseDAO();
+        List<Course> catalog = new ArrayList<>(COURSES);
+        for (int i = 0; i < COURSES; i++) {
+            List<String> prerequisites = i < 2 ? List.of() : List.of(courseId(i / 3), courseId(i - 1));
+            catalog.add(new Course(courseId(i), "Course " + i, 3, "Computer Science", prerequisites));
+        }
+        assertEquals(COURSES, courseDAO.insertCourses(catalog).getInserted());
+    }
+
+    @AfterAll
+    static void closeDatabase() throws IOException {
+        TestDatabase.close();
+    }
+
+    private static String courseId(int i) {
+        return String.format("C%06d", i);
+    }
+
+    private static long usedHeapAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    @Test
+    void largeCatalogStreamsInConstantMemory() throws SQLException {
+        long[] heap = new long[2];
+        int[] count = {0};
+        courseDAO.forEachCourse(course -> {
+            count[0]++;
+            if (count[0] == COURSES / 10) {
+                heap[0] = usedHeapAfterGc();
+            } else if (count[0] == COURSES) {
+                heap[1] = usedHeapAfterGc();
+            }
+        });
+
+        assertEquals(COURSES, count[0]);
+        long growth = heap[1] - heap[0];
+        assertTrue(growth < MAX_GROWTH_BYTES,
+                "Heap grew by " + growth / 1024 + " KB while streaming " + (COURSES - COURSES / 10) + " courses");
+    }
+}
@@ -0,0 +1,102 @@
+package main;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Time and allocation per row of parsing a course catalog CSV with line.split(","), as the
+ * loaders did before, and with CsvReader. Each invocation parses the whole in-memory catalog,
+ * so every score is per row, including each reader's buffers spread over the catalog's rows.
+ * Run it with the GC profiler and read gc.alloc.rate.norm, the bytes allocated per row:
+ *
+ * mvn -B -Pbenchmark test-compile exec:exec -Djmh.args="CsvReaderBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvReaderBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    private String catalog;
+
+    @Setup
+    public void createCatalog() {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < ROWS; i++) {
+            csv.append(String.format("CSCI%05d,Course Title %d,%d,Computer Science,", i, i, 1 + i % 4));
+            csv.append(i == 0 ? "None" : String.format("CSCI%05d;CSCI%05d", i / 2, i - 1));
+            csv.append('\n');
+        }
+        catalog = csv.toString();
+    }
+
+    /**
+     * The loaders before CsvReader: a String[] and a String per field for every line.
+     */
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void split(Blackhole bh) throws IOException {
+        try (BufferedReader br = new BufferedReader(new StringReader(catalog))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                String[] values = line.split(",");
+                if (values.length == 5) {
+                    bh.consume(values[0]);
+                    bh.consume(Integer.parseInt(values[2]));
+                    bh.consume(values[4]);
+                }
+            }
+        }
+    }
+
+    /**
+     * CsvReader with the fields read as views: only the reader's own buffers are allocated.
+     */
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void csvReaderViews(Blackhole bh) throws IOException {
+        try (CsvReader csv = new CsvReader(new StringReader(catalog))) {
+            while (csv.next()) {
+                bh.consume(csv.field(0));
+                bh.consume(csv.getInt(2));
+                bh.consume(csv.field(4));
+            }
+        }
+    }
+
+    /**
+     * CsvReader keeping the Strings a Course needs, as the loaders do.
+     */
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void csvReaderStrings(Blackhole bh) throws IOException {
+        try (CsvReader csv = new CsvReader(new StringReader(catalog))) {
+            while (csv.next()) {
+                bh.consume(csv.getString(0));
+                bh.consume(csv.getString(1));
+                bh.consume(csv.getInt(2));
+                bh.consume(csv.getString(3));
+                bh.consume(csv.field(4));
+            }
+        }
+    }
+}
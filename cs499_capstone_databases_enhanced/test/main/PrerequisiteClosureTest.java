@@ -0,0 +1,107 @@
+package main;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * CourseDAO.getPrerequisiteClosure on prerequisite graphs that are not simple chains.
+ */
+class PrerequisiteClosureTest {
+
+    private static CourseDAO courseDAO;
+
+    @BeforeAll
+    static void openDatabase() throws IOException {
+        TestDatabase.open();
+        courseDAO = new CourseDAO();
+    }
+
+    @AfterAll
+    static void closeDatabase() throws IOException {
+        TestDatabase.close();
+    }
+
+    @BeforeEach
+    void clearCatalog() throws SQLException {
+        TestDatabase.clear();
+    }
+
+    private static void addCourse(String courseId, String... prerequisites) throws SQLException {
+        courseDAO.insertCourse(new Course(courseId, "Course " + courseId, 3, "Computer Science", List.of(prerequisites)));
+    }
+
+    private static Map<String, Integer> closure(Object... idsAndDepths) {
+        Map<String, Integer> closure = new LinkedHashMap<>();
+        for (int i = 0; i < idsAndDepths.length; i += 2) {
+            closure.put((String) idsAndDepths[i], (Integer) idsAndDepths[i + 1]);
+        }
+        return closure;
+    }
+
+    @Test
+    void diamondListsSharedPrerequisiteOnce() throws SQLException {
+        // CSCI400 needs CSCI300 and MATH300, which both need CSCI100
+        addCourse("CSCI100");
+        addCourse("CSCI300", "CSCI100");
+        addCourse("MATH300", "CSCI100");
+        addCourse("CSCI400", "CSCI300", "MATH300");
+
+        assertEquals(closure("CSCI300", 1, "MATH300", 1, "CSCI100", 2),
+                courseDAO.getPrerequisiteClosure("CSCI400"));
+    }
+
+    @Test
+    void diamondWithShortcutReportsShortestDepth() throws SQLException {
+        // CSCI100 is reachable directly and through CSCI200
+        addCourse("CSCI100");
+        addCourse("CSCI200", "CSCI100");
+        addCourse("CSCI400", "CSCI200", "CSCI100");
+
+        assertEquals(closure("CSCI100", 1, "CSCI200", 1),
+                courseDAO.getPrerequisiteClosure("CSCI400"));
+    }
+
+    @Test
+    void cycleTerminatesAndExcludesStartingCourse() throws SQLException {
+        // CSCI100 -> CSCI200 -> CSCI300 -> CSCI100
+        addCourse("CSCI100", "CSCI200");
+        addCourse("CSCI200", "CSCI300");
+        addCourse("CSCI300", "CSCI100");
+
+        Map<String, Integer> result = assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> courseDAO.getPrerequisiteClosure("CSCI100"));
+        assertEquals(closure("CSCI200", 1, "CSCI300", 2), result);
+    }
+
+    @Test
+    void cycleWithBranchStillReachesEverything() throws SQLException {
+        // CSCI100 and CSCI200 require each other; CSCI200 also needs MATH100, which needs MATH050
+        addCourse("MATH050");
+        addCourse("MATH100", "MATH050");
+        addCourse("CSCI100", "CSCI200");
+        addCourse("CSCI200", "CSCI100", "MATH100");
+
+        Map<String, Integer> result = assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> courseDAO.getPrerequisiteClosure("CSCI100"));
+        assertEquals(closure("CSCI200", 1, "MATH100", 2, "MATH050", 3), result);
+    }
+
+    @Test
+    void selfPrerequisiteIsIgnored() throws SQLException {
+        addCourse("CSCI100", "CSCI100");
+
+        assertEquals(Map.of(), courseDAO.getPrerequisiteClosure("CSCI100"));
+    }
+}
@@ -0,0 +1,74 @@
+package main;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * SnapshotCourseDAO must not keep serving a snapshot that missed a write.
+ */
+class SnapshotCourseDAOTest {
+
+    /**
+     * A snapshot DAO whose re-read of changed courses fails while failRefresh is set.
+     */
+    private static class FailingRefreshDAO extends SnapshotCourseDAO {
+        volatile boolean failRefresh;
+
+        FailingRefreshDAO() throws SQLException {
+        }
+
+        @Override
+        void readCoursesById(Collection<String> courseIds, Connection conn, Consumer<Course> action) throws SQLException {
+            if (failRefresh) {
+                throw new SQLException("Simulated refresh failure");
+            }
+            super.readCoursesById(courseIds, conn, action);
+        }
+    }
+
+    @BeforeAll
+    static void openDatabase() throws IOException {
+        TestDatabase.open();
+    }
+
+    @AfterAll
+    static void closeDatabase() throws IOException {
+        TestDatabase.close();
+    }
+
+    @BeforeEach
+    void clearCatalog() throws SQLException {
+        TestDatabase.clear();
+    }
+
+    private static Course course(String courseId, String courseName) {
+        return new Course(courseId, courseName, 3, "Computer Science", List.of());
+    }
+
+    @Test
+    void failedRefreshIsCaughtUpOnNextRead() throws SQLException {
+        FailingRefreshDAO dao = new FailingRefreshDAO();
+        dao.insertCourse(course("CSCI100", "Introduction to Programming"));
+        dao.insertCourse(course("CSCI200", "Data Structures"));
+
+        dao.failRefresh = true;
+        dao.applyCatalogChanges(List.of(course("CSCI100", "Programming Fundamentals")), List.of("CSCI200"));
+        dao.failRefresh = false;
+
+        assertEquals("Programming Fundamentals", dao.findCourseById("CSCI100").getCourseName());
+        assertNull(dao.findCourseById("CSCI200"));
+        assertEquals(1, dao.getAllCourses().size());
+    }
+}
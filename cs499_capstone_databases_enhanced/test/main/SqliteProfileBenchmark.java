@@ -0,0 +1,100 @@
+package main;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Import and lookup throughput under each SqliteProfile preset, in courses per second.
+ * DatabaseManager reads the preset once, when it is loaded, and every benchmark and preset
+ * runs in a JVM of its own, so each measurement starts from a new database with that preset.
+ *
+ * mvn -B -Pbenchmark test-compile exec:exec -Djmh.args=SqliteProfileBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class SqliteProfileBenchmark {
+
+    // Courses in the catalog before the measurement starts
+    private static final int CATALOG_SIZE = 20_000;
+
+    // Courses per import; each is one insertCourses call
+    private static final int IMPORT_SIZE = 1_000;
+
+    @Param({"durable", "balanced", "bulk-load"})
+    public String profile;
+
+    private CourseDAO courseDAO;
+    private int nextCourse;
+
+    @Setup(Level.Trial)
+    public void createCatalog() throws IOException, SQLException {
+        System.setProperty("advising.sqlite.profile", profile);
+        TestDatabase.open();
+        if (!DatabaseManager.getProfile().getName().equals(profile)) {
+            throw new IllegalStateException("DatabaseManager is using the "
+                    + DatabaseManager.getProfile().getName() + " preset, not " + profile);
+        }
+        courseDAO = new CourseDAO();
+        insertNext(CATALOG_SIZE);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteCatalog() throws IOException {
+        TestDatabase.close();
+    }
+
+    private static String courseId(int i) {
+        return String.format("C%06d", i);
+    }
+
+    /**
+     * Inserts the next count courses, each requiring the course before it.
+     */
+    private BulkInsertResult insertNext(int count) throws SQLException {
+        List<Course> courses = new ArrayList<>(count);
+        for (int i = nextCourse; i < nextCourse + count; i++) {
+            List<String> prerequisites = i == 0 ? List.of() : List.of(courseId(i - 1));
+            courses.add(new Course(courseId(i), "Course " + i, 3, "Computer Science", prerequisites));
+        }
+        nextCourse += count;
+        BulkInsertResult result = courseDAO.insertCourses(courses);
+        if (result.getInserted() != count) {
+            throw new IllegalStateException("Import failed: " + result.getErrors());
+        }
+        return result;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(IMPORT_SIZE)
+    public BulkInsertResult importCourses() throws SQLException {
+        return insertNext(IMPORT_SIZE);
+    }
+
+    @Benchmark
+    public Course lookup() throws SQLException {
+        return courseDAO.findCourseById(courseId(ThreadLocalRandom.current().nextInt(CATALOG_SIZE)));
+    }
+}
@@ -0,0 +1,70 @@
+package main;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * A temporary SQLite database for the tests, so they never touch advisingProgram.db.
+ * DatabaseManager reads the database file name once, when the class is loaded, so open() must
+ * run before anything else uses the database. Surefire starts a new JVM for every test class,
+ * which gives each class a database of its own.
+ */
+final class TestDatabase {
+
+    private static Path directory;
+
+    private TestDatabase() {
+    }
+
+    /**
+     * Points DatabaseManager at an empty database in a new temporary directory and creates the schema.
+     *
+     * @throws IllegalStateException if DatabaseManager was already using another file.
+     */
+    static synchronized void open() throws IOException {
+        if (directory != null) {
+            return;
+        }
+        directory = Files.createTempDirectory("advising-test");
+        Path file = directory.resolve("advisingProgram.db");
+        System.setProperty("advising.db.file", file.toString());
+        if (!Paths.get(DatabaseManager.DB_FILE).equals(file)) {
+            throw new IllegalStateException("DatabaseManager was loaded before the test database was set up: "
+                    + DatabaseManager.DB_FILE);
+        }
+        DatabaseManager.createCourseTable();
+    }
+
+    /**
+     * Removes every course, so each test starts from an empty catalog.
+     */
+    static void clear() throws SQLException {
+        try (Connection conn = DatabaseManager.connect();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM Prerequisite");
+            stmt.executeUpdate("DELETE FROM Course");
+        }
+    }
+
+    /**
+     * Closes the connection pool and deletes the temporary database.
+     */
+    static synchronized void close() throws IOException {
+        DatabaseManager.shutdown();
+        if (directory == null) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+        directory = null;
+    }
+}
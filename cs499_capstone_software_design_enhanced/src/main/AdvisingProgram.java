@@ -36,15 +36,34 @@
 
 package main;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.InputMismatchException;
+import java.util.List;
 import java.util.Scanner;
 
 public class AdvisingProgram {
 	
+	// Parse CSV files on disk in parallel with ParallelCsvLoader (-Dadvising.import.parallel=true)
+	private static final boolean PARALLEL_LOAD = Boolean.getBoolean("advising.import.parallel");
+	
+	// Reload the catalog file whenever it changes (-Dadvising.catalog.watch=true)
+	private static final boolean WATCH_CATALOG = Boolean.getBoolean("advising.catalog.watch");
+	
+	// Keep a binary snapshot next to the catalog file and serve lookups from it (-Dadvising.catalog.binary=true)
+	// Ignored in watch mode, which keeps the courses in the tree so that changes can be applied
+	private static final boolean BINARY_CATALOG = Boolean.getBoolean("advising.catalog.binary");
+	
 	public static void main(String[] args) {
 		// Assuming the input CSV file is passed as an argument
         String filePath = "advising_program_input.csv";
@@ -59,9 +78,29 @@ public class AdvisingProgram {
         // Initialize the Binary Search Tree
         BinarySearchTree bst = new BinarySearchTree();
 
+        // In watch mode, load the catalog now and apply every later change to the file while the menu runs
+        String catalogPath = filePath;
+        CsvChangeDetector<Course> detector = new CsvChangeDetector<>();
+        CatalogWatcher watcher = null;
+        if (WATCH_CATALOG) {
+            reloadCourses(catalogPath, bst, detector);
+            try {
+                if (isFile(catalogPath)) {
+                    watcher = new CatalogWatcher(Paths.get(catalogPath), () -> reloadCourses(catalogPath, bst, detector));
+                    watcher.start();
+                    System.out.println("Watching " + catalogPath + " for catalog changes.");
+                }
+            } catch (IOException e) {
+                System.err.println("Error watching the file: " + e.getMessage());
+            }
+        }
+
         // Load courses from a file and insert them into the tree
         //loadCourses(filePath, bst);
 
+        // The mapped snapshot of the catalog, when the courses were loaded from one instead of into the tree
+        BinaryCatalog snapshot = null;
+
         // Menu-driven program
         Scanner sc = new Scanner(System.in);
         int choice = 0;
@@ -80,19 +119,34 @@ public class AdvisingProgram {
 	            
 	            switch (choice) {
 	                case 1:
-	                    loadCourses(filePath, bst);
+	                    if (WATCH_CATALOG) {
+	                        reloadCourses(filePath, bst, detector);  // Apply only what changed
+	                    } else {
+	                        // Map an up-to-date snapshot if there is one; otherwise parse the CSV, which writes a new snapshot
+	                        snapshot = BINARY_CATALOG ? openSnapshot(filePath) : null;
+	                        if (snapshot != null) {
+	                            System.out.println();
+	                            System.out.println("Courses loaded from snapshot: " + snapshot.size() + " courses.");
+	                        } else {
+	                            loadCourses(filePath, bst);
+	                        }
+	                    }
 	                    //System.out.println("Courses loaded successfully.");
 	                    break;
 	                case 2:
 	                	System.out.println();
 	                    System.out.println("Here is a sample schedule:");
-	                    bst.inOrder();
+	                    if (snapshot != null) {
+	                        snapshot.forEach(c -> System.out.println("Course ID: " + c.courseId + ", Title: " + c.title));
+	                    } else {
+	                        bst.inOrder();
+	                    }
 	                    break;
 	                case 3:
 	                	System.out.println();
 	                    System.out.println("Please Enter The Course ID: ");
 	                    courseKey = sc.next();
-	                    Course course = bst.search(courseKey.toUpperCase());
+	                    Course course = snapshot != null ? snapshot.find(courseKey.toUpperCase()) : bst.search(courseKey.toUpperCase());
 	                    
 	                    if (course != null) {
 	                        displayCourse(course);
@@ -116,35 +170,75 @@ public class AdvisingProgram {
         }
         
         sc.close();
+        if (watcher != null) {
+            try {
+                watcher.close();
+            } catch (IOException e) {
+                System.err.println("Error closing the file watcher: " + e.getMessage());
+            }
+        }
 	}
 	
 	
 	// Method to load courses from a file
+	// With -Dadvising.import.parallel=true, a path naming a file on disk is memory-mapped and parsed
+	// on several cores by ParallelCsvLoader; the courses are then inserted into the tree in file order
+	// With -Dadvising.catalog.binary=true, a binary snapshot of the courses read from the file is written next to it;
+	// courses already in the tree from an earlier load are left out, so the snapshot matches the file
 	private static void loadCourses(String filePath, BinarySearchTree bst) {
-	    // Use class loader to access the file from the resources folder
-	    InputStream inputStream = AdvisingProgram.class.getClassLoader().getResourceAsStream(filePath);
+	    // Size and modification time of the file before it is read, for the snapshot to be checked against
+	    BasicFileAttributes source = BINARY_CATALOG ? readAttributes(filePath) : null;
+	    // Course IDs repeat as prerequisites; the symbol table keeps one copy of each for this load
+	    SymbolTable symbols = new SymbolTable();
 
-	    // Check if the resource was found
-	    if (inputStream == null) {
-	        System.err.println("Error: File not found in resources folder!");
+	    if (PARALLEL_LOAD && isFile(filePath)) {
+	        try {
+	            ParallelCsvLoader.Result<Course> result = ParallelCsvLoader.parse(Paths.get(filePath), csv -> parseCourse(csv, symbols));
+	            // Errors come back in file order, as a sequential read would report them
+	            for (CsvReader.CsvException e : result.getErrors()) {
+	                System.err.println("Error parsing CSV: " + e.getMessage() + ". Skipping entry.");
+	            }
+	            for (Course course : result.getRecords()) {
+	                bst.insert(course);
+	            }
+	            System.out.println();
+	            System.out.println("Courses loaded successfully.");
+	            writeSnapshot(filePath, source, result.getRecords());
+	        } catch (IOException e) {
+	            System.err.println("Error reading the file: " + e.getMessage());
+	        }
 	        return;
 	    }
 
-	    try (BufferedReader br = new BufferedReader(new InputStreamReader(inputStream))) {
-	        String line;
-	        
-	        while ((line = br.readLine()) != null) {
-	            String[] fields = line.split(",");
-	            Course course = new Course(fields[0], fields[1]);
-	            
-	            for (int i = 2; i < fields.length; i++) {
-	                course.prerequisite.add(fields[i]);
+	    // Open the file on disk, or else from the resources folder
+	    try (Reader reader = openCatalog(filePath)) {
+	        // Check if the file was found
+	        if (reader == null) {
+	            System.err.println("Error: File not found on disk or in resources folder!");
+	            return;
+	        }
+
+	        // The courses read from this file, for the snapshot
+	        List<Course> loaded = new ArrayList<>();
+	        CsvReader csv = new CsvReader(reader);
+	        while (true) {
+	            try {
+	                if (!csv.next()) {
+	                    break;
+	                }
+	                Course course = parseCourse(csv, symbols);
+	                if (course != null) {
+	                    bst.insert(course);
+	                    loaded.add(course);
+	                }
+	            } catch (CsvReader.CsvException e) {
+	                // Malformed record; the reader has moved on to the next line
+	                System.err.println("Error parsing CSV: " + e.getMessage() + ". Skipping entry.");
 	            }
-	            
-	            bst.insert(course);
 	        }
 	        System.out.println();
 	        System.out.println("Courses loaded successfully.");
+	        writeSnapshot(filePath, source, loaded);
 	        
 	    } catch (IOException e) {
 	        System.err.println("Error reading the file: " + e.getMessage());
@@ -152,6 +246,120 @@ public class AdvisingProgram {
 	}
 	
 	
+	// Re-read the catalog and apply only the courses that were added, changed or removed since the last reload
+	// Only new and changed records are parsed; readers keep using the previous tree until the changes are applied
+	// The menu and the file watcher can reload at the same time, so each scan and its update run under the
+	// detector's lock; otherwise the changes from an older scan could be applied after those of a newer one
+	private static void reloadCourses(String filePath, BinarySearchTree bst, CsvChangeDetector<Course> detector) {
+	    synchronized (detector) {
+	        try (Reader reader = openCatalog(filePath)) {
+	            if (reader == null) {
+	                System.err.println("Error: File not found on disk or in resources folder!");
+	                return;
+	            }
+
+	            SymbolTable symbols = new SymbolTable();
+	            CsvChangeDetector.Changes<Course> changes = detector.scan(reader, csv -> parseCourse(csv, symbols));
+	            for (CsvReader.CsvException e : changes.getErrors()) {
+	                System.err.println("Error parsing CSV: " + e.getMessage() + ". Skipping entry.");
+	            }
+	            bst.apply(changes.getUpserts(), changes.getRemovals());
+	            System.out.println();
+	            System.out.println("Courses reloaded: " + changes + ".");
+	        } catch (IOException e) {
+	            System.err.println("Error reading the file: " + e.getMessage());
+	        }
+	    }
+	}
+	
+	
+	// Map the binary snapshot of a catalog file if it is up to date
+	// Returns null if the path does not name a file on disk or there is no usable snapshot, so the CSV is loaded instead
+	private static BinaryCatalog openSnapshot(String filePath) {
+	    if (!isFile(filePath)) {
+	        return null;
+	    }
+	    Path csvFile = Paths.get(filePath);
+	    try {
+	        return BinaryCatalog.open(BinaryCatalog.pathFor(csvFile), csvFile);
+	    } catch (IOException e) {
+	        System.err.println("Error reading the snapshot: " + e.getMessage());
+	        return null;
+	    }
+	}
+	
+	
+	// Write a binary snapshot of the loaded courses next to the catalog file, for the next start to map
+	// Does nothing if source is null, which means the catalog is not a file on disk
+	private static void writeSnapshot(String filePath, BasicFileAttributes source, Collection<Course> courses) {
+	    if (source == null) {
+	        return;
+	    }
+	    try {
+	        BinaryCatalog.write(BinaryCatalog.pathFor(Paths.get(filePath)), source, courses);
+	    } catch (IOException e) {
+	        System.err.println("Error writing the snapshot: " + e.getMessage());
+	    }
+	}
+	
+	
+	// Read the size and modification time of a catalog file on disk
+	// Returns null if the path does not name a file on disk or it cannot be read
+	private static BasicFileAttributes readAttributes(String filePath) {
+	    if (!isFile(filePath)) {
+	        return null;
+	    }
+	    try {
+	        return Files.readAttributes(Paths.get(filePath), BasicFileAttributes.class);
+	    } catch (IOException e) {
+	        return null;
+	    }
+	}
+	
+	
+	// Open a catalog as UTF-8 text: the file on disk if the path names one, otherwise the resource in the resources folder
+	// Returns null if neither exists
+	private static Reader openCatalog(String filePath) throws IOException {
+	    if (isFile(filePath)) {
+	        return Files.newBufferedReader(Paths.get(filePath), StandardCharsets.UTF_8);
+	    }
+	    // Use class loader to access the file from the resources folder
+	    InputStream inputStream = AdvisingProgram.class.getClassLoader().getResourceAsStream(filePath);
+	    return inputStream == null ? null : new InputStreamReader(inputStream, StandardCharsets.UTF_8);
+	}
+	
+	
+	// Build a course from the current CSV record: courseId, title, then any number of prerequisite IDs (RFC 4180 CSV)
+	// Course IDs, including those of prerequisites, come from the symbol table of the load
+	// Returns null for a blank line
+	private static Course parseCourse(CsvReader csv, SymbolTable symbols) throws CsvReader.CsvException {
+	    if (csv.isBlankLine()) {
+	        return null;
+	    }
+	    if (csv.getFieldCount() < 2) {
+	        throw new CsvReader.CsvException("missing course title", csv.getLineNumber());
+	    }
+
+	    Course course = new Course(symbols.intern(csv.field(0)), csv.getString(1));
+	    for (int i = 2; i < csv.getFieldCount(); i++) {
+	        if (csv.field(i).length() > 0) {  // Ignore empty trailing fields
+	            course.prerequisite.add(symbols.intern(csv.field(i)));
+	        }
+	    }
+	    return course;
+	}
+	
+	
+	// Check whether a path names a regular file on disk
+	private static boolean isFile(String path) {
+	    try {
+	        return Files.isRegularFile(Paths.get(path));
+	    } catch (InvalidPathException e) {
+	        return false;
+	    }
+	}
+	
+	
 	// Display the course information to the console (System.out)
 	public static void displayCourse(Course course) {
 		System.out.println();
@@ -1,31 +1,79 @@
 package main;
 
+import java.util.Collection;
+
 //Binary Search Tree to manage courses
+//Nodes are never changed once they are part of the tree: an update copies the path from the root to
+//the changed node and then publishes the new root, so readers never lock and always see a complete
+//version of the tree, even while a catalog reload is being applied
 public class BinarySearchTree {
-	private Node root;
+	private volatile Node root;
 
     // Constructor
     public BinarySearchTree() {
         root = null;
     }
 
-    // Insert method
-    public void insert(Course course) {
-        root = addNode(root, course);
+    // Insert method; a course whose ID is already in the tree is ignored
+    public synchronized void insert(Course course) {
+        root = addNode(root, course, false);
+    }
+
+    // Apply the changes found by a catalog reload as one new version of the tree
+    // Courses in upserts replace any course with the same ID; readers see all of the changes or none
+    // Time Complexity: O(k * h) for k changes in a tree of height h
+    public synchronized void apply(Collection<Course> upserts, Collection<String> removals) {
+        Node newRoot = root;
+        for (String courseId : removals) {
+            newRoot = removeNode(newRoot, courseId);
+        }
+        for (Course course : upserts) {
+            newRoot = addNode(newRoot, course, true);
+        }
+        root = newRoot;
     }
 
-    // Helper function to add node to the tree
-    private Node addNode(Node root, Course course) {
+    // Helper function to add node to the tree, copying the nodes on the path to it
+    private Node addNode(Node root, Course course, boolean replace) {
         if (root == null) {
             return new Node(course);
         }
 
         if (course.courseId.compareTo(root.course.courseId) < 0) {
-            root.left = addNode(root.left, course);
+            return new Node(root.course, addNode(root.left, course, replace), root.right);
         } else if (course.courseId.compareTo(root.course.courseId) > 0) {
-            root.right = addNode(root.right, course);
+            return new Node(root.course, root.left, addNode(root.right, course, replace));
+        }
+        return replace ? new Node(course, root.left, root.right) : root;
+    }
+
+    // Helper function to remove a node from the tree, copying the nodes on the path to it
+    private Node removeNode(Node root, String courseId) {
+        if (root == null) {
+            return null;
+        }
+
+        int comparison = courseId.compareTo(root.course.courseId);
+        if (comparison < 0) {
+            Node left = removeNode(root.left, courseId);
+            return left == root.left ? root : new Node(root.course, left, root.right);
+        } else if (comparison > 0) {
+            Node right = removeNode(root.right, courseId);
+            return right == root.right ? root : new Node(root.course, root.left, right);
+        }
+
+        // Replace the removed node with its in-order successor
+        if (root.left == null) {
+            return root.right;
+        }
+        if (root.right == null) {
+            return root.left;
+        }
+        Node successor = root.right;
+        while (successor.left != null) {
+            successor = successor.left;
         }
-        return root;
+        return new Node(successor.course, root.left, removeNode(root.right, successor.course.courseId));
     }
 
     // InOrder traversal to display courses
@@ -10,4 +10,11 @@ public class Node {
         this.course = course;
         this.left = this.right = null;
     }
+
+    // Constructor for a copy of a node with new children
+    public Node(Course course, Node left, Node right) {
+        this.course = course;
+        this.left = left;
+        this.right = right;
+    }
 }